@@ -0,0 +1,48 @@
+package net.marvk.chess.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+import java.io.IOException;
+
+/**
+ * Entry point of {@code benchmarks.jar}, accepts the regular JMH command line and adds the allocation profiler
+ * ({@code -prof gc}) unless {@code -Dnet.marvk.chess.benchmarks.gc=false} is set, so every run reports
+ * {@code gc.alloc.rate.norm} next to the score and allocation regressions on hot paths show up in the same report.
+ */
+public final class BenchmarkRunner {
+    public static final String GC_PROFILER_PROPERTY = "net.marvk.chess.benchmarks.gc";
+
+    private BenchmarkRunner() {
+        throw new AssertionError("No instances of utility class " + BenchmarkRunner.class);
+    }
+
+    public static void main(final String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList() || commandLineOptions.shouldListProfilers()
+                || commandLineOptions.shouldListResultFormats() || commandLineOptions.shouldListWithParams()) {
+            Main.main(args);
+            return;
+        }
+
+        final ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+
+        if (!"false".equals(System.getProperty(GC_PROFILER_PROPERTY)) && commandLineOptions.getProfilers().stream().noneMatch(BenchmarkRunner::isGcProfiler)) {
+            options.addProfiler(GCProfiler.class);
+        }
+
+        new Runner(options.build()).run();
+    }
+
+    private static boolean isGcProfiler(final ProfilerConfig profilerConfig) {
+        return "gc".equals(profilerConfig.getKlass()) || GCProfiler.class.getName().equals(profilerConfig.getKlass());
+    }
+}
@@ -0,0 +1,77 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.core.UciMove;
+import net.marvk.chess.kairukuengine.KairukuEngine;
+import net.marvk.chess.uci4j.Go;
+import net.marvk.chess.uci4j.UiChannel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed depth {@link KairukuEngine} searches of every position in {@link Positions#FENS}, starting from a new game
+ * each time so that the transposition table does not carry over between invocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EngineBenchmark {
+    private static final UciMove[] NO_MOVES = new UciMove[0];
+
+    @Param({"4", "5"})
+    private int depth;
+
+    private final BlockingQueue<UciMove> bestMoves = new ArrayBlockingQueue<>(1);
+
+    private KairukuEngine engine;
+    private Go go;
+
+    @Setup
+    public void setup() {
+        engine = new KairukuEngine(new UiChannel() {
+            @Override
+            public void bestMove(final UciMove move) {
+                bestMoves.add(move);
+            }
+        });
+
+        go = Go.builder().depth(depth).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.quit();
+    }
+
+    @Benchmark
+    public int search() throws InterruptedException {
+        int result = 0;
+
+        for (final String fen : Positions.FENS) {
+            engine.uciNewGame();
+            engine.position(fen, NO_MOVES);
+            engine.go(go);
+
+            result += bestMoves.take().hashCode();
+        }
+
+        return result;
+    }
+
+    /**
+     * Single position search from the initial position, for comparing node rates with the engine's own logging
+     */
+    @Benchmark
+    public UciMove searchInitialPosition() throws InterruptedException {
+        engine.uciNewGame();
+        engine.positionFromDefault(NO_MOVES);
+        engine.go(go);
+
+        return bestMoves.take();
+    }
+}
@@ -0,0 +1,92 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.core.Fen;
+import net.marvk.chess.core.FenReader;
+import net.marvk.chess.core.bitboards.Bitboard;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FEN throughput of the single pass reader and the {@link StringBuilder} writer, compared with the
+ * {@link LegacyFen legacy regex implementation}. One operation reads or writes every FEN of
+ * {@link Positions#FENS}. The legacy parse only validates and splits, it does not load a board.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FenBenchmark {
+    private Bitboard[] boards;
+
+    private final StringBuilder stringBuilder = new StringBuilder(90);
+
+    @Setup
+    public void setup() {
+        boards = new Bitboard[Positions.FENS.length];
+
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = Bitboard.fromFen(Positions.FENS[i]);
+        }
+    }
+
+    @Benchmark
+    public void readIntoBitboard(final Blackhole blackhole) {
+        for (final String fen : Positions.FENS) {
+            blackhole.consume(Bitboard.fromFen(fen));
+        }
+    }
+
+    @Benchmark
+    public void parse(final Blackhole blackhole) {
+        for (final String fen : Positions.FENS) {
+            blackhole.consume(Fen.parse(fen));
+        }
+    }
+
+    @Benchmark
+    public void parseFenIntoBitboard(final Blackhole blackhole) {
+        for (final String fen : Positions.FENS) {
+            blackhole.consume(new Bitboard(Fen.parse(fen)));
+        }
+    }
+
+    @Benchmark
+    public void validate(final Blackhole blackhole) {
+        for (final String fen : Positions.FENS) {
+            blackhole.consume(FenReader.isValid(fen));
+        }
+    }
+
+    @Benchmark
+    public void legacyParse(final Blackhole blackhole) {
+        for (final String fen : Positions.FENS) {
+            blackhole.consume(LegacyFen.parse(fen));
+        }
+    }
+
+    @Benchmark
+    public void write(final Blackhole blackhole) {
+        for (final Bitboard board : boards) {
+            blackhole.consume(board.fen());
+        }
+    }
+
+    @Benchmark
+    public void appendToReusedBuilder(final Blackhole blackhole) {
+        for (final Bitboard board : boards) {
+            stringBuilder.setLength(0);
+            blackhole.consume(board.appendFen(stringBuilder));
+        }
+    }
+
+    @Benchmark
+    public void legacyWrite(final Blackhole blackhole) {
+        for (final Bitboard board : boards) {
+            blackhole.consume(LegacyFen.fen(board));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.kairukuengine.Heuristic;
+import net.marvk.chess.kairukuengine.SimpleHeuristic;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Static evaluation of every position in {@link Positions#FENS}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HeuristicBenchmark {
+    private final Heuristic heuristic = new SimpleHeuristic();
+
+    private Bitboard[] boards;
+
+    @Setup
+    public void setup() {
+        boards = Positions.boards();
+    }
+
+    @Benchmark
+    public int evaluate() {
+        int result = 0;
+
+        for (final Bitboard board : boards) {
+            result += heuristic.evaluate(board, true);
+        }
+
+        return result;
+    }
+}
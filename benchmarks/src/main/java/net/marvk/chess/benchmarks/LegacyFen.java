@@ -0,0 +1,119 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.core.Color;
+import net.marvk.chess.core.ColoredPiece;
+import net.marvk.chess.core.Square;
+import net.marvk.chess.core.bitboards.Bitboard;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The regex based FEN validation and FEN generation prior to the single pass reader and writer. Only kept as a
+ * baseline for benchmarks.
+ */
+final class LegacyFen {
+    private static final Pattern FEN_PATTERN = Pattern.compile("^" +
+            "(?<piecePlacement>(?!.{0,6}[1-8][1-8])[PNBRQKpnbrqk1-8]{1,8}(?:/(?!.{0,6}[1-8][1-8])[PNBRQKpnbrqk1-8]{1,8}){7}) " +
+            "(?<activeColor>[bw]) " +
+            "(?<castlingAvailability>(?=[KQkq])(?:K?Q?k?q?)|-) " +
+            "(?<enPassantTargetSquare>[a-h][1-8]|-)(:? " +
+            "(?<halfmoveClock>\\d+) " +
+            "(?<fullmoveClock>\\d+))?" +
+            "$"
+    );
+
+    private LegacyFen() {
+        throw new AssertionError("No instances of utility class " + LegacyFen.class);
+    }
+
+    /**
+     * Validates and splits the FEN like the legacy {@code Fen} did, without loading it into a board
+     */
+    static String[] parse(final String input) {
+        final Matcher matcher = FEN_PATTERN.matcher(input.trim());
+
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Input string is not a valid FEN notation: " + input);
+        }
+
+        final String piecePlacement = matcher.group("piecePlacement");
+
+        final boolean piecePlacementRowsValid =
+                Arrays.stream(piecePlacement.split("/"))
+                      .mapToInt(s -> s.chars().map(c -> Character.isDigit(c) ? c - '0' : 1).sum())
+                      .noneMatch(rowSum -> rowSum != 8);
+
+        if (!piecePlacementRowsValid) {
+            throw new IllegalArgumentException("Input string is not a valid FEN notation");
+        }
+
+        return new String[]{
+                piecePlacement,
+                matcher.group("activeColor"),
+                matcher.group("castlingAvailability"),
+                matcher.group("enPassantTargetSquare"),
+                matcher.group("halfmoveClock"),
+                matcher.group("fullmoveClock")
+        };
+    }
+
+    static String fen(final Bitboard board) {
+        final StringBuilder stringBuilder = new StringBuilder("................................................................");
+
+        for (final Square square : Square.values()) {
+            final ColoredPiece piece = board.getPiece(square);
+
+            if (piece == null) {
+                continue;
+            }
+
+            final int index = (8 - square.getRank().getIndex() - 1) * 8 + square.getFile().getIndex();
+
+            stringBuilder.setCharAt(index, piece.getSan());
+        }
+
+        String result = stringBuilder.toString()
+                                     .replaceAll("(?<=\\G.{8})", "/")
+                                     .replaceFirst("/$", "");
+
+        while (true) {
+            final Pattern compile = Pattern.compile("^[^.]*(\\.+).*$");
+
+            final Matcher matcher = compile.matcher(result);
+
+            if (!matcher.matches()) {
+                final StringBuilder castle = new StringBuilder();
+
+                if (board.canCastleKingSide(Color.WHITE)) {
+                    castle.append("K");
+                }
+
+                if (board.canCastleQueenSide(Color.WHITE)) {
+                    castle.append("Q");
+                }
+
+                if (board.canCastleKingSide(Color.BLACK)) {
+                    castle.append("k");
+                }
+
+                if (board.canCastleQueenSide(Color.BLACK)) {
+                    castle.append("q");
+                }
+
+                if (castle.length() == 0) {
+                    castle.append("-");
+                }
+
+                final String enPassantString = board.getEnPassant() == null ? "-" : board.getEnPassant().getFen();
+
+                return result + " " + board.getActivePlayer().getFen() + " " + castle + " " + enPassantString + " " + board.getHalfmoveClock() + " " + board.getFullmoveClock();
+            }
+
+            final String group = matcher.group(1);
+
+            result = result.replaceFirst(Pattern.quote(group), Integer.toString(group.length()));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.core.Square;
+import net.marvk.chess.core.bitboards.Configuration;
+import net.marvk.chess.core.bitboards.MagicBitboard;
+
+import java.util.function.BiFunction;
+
+/**
+ * The magic bitboard layout prior to the flat attack table: one attack array per square and separate parameter arrays,
+ * with an additional mask after the shift. Only kept as a baseline for benchmarks.
+ */
+final class LegacyMagicBitboard {
+    static final LegacyMagicBitboard ROOK = new LegacyMagicBitboard(MagicBitboard.ROOK, Configuration::rookConfiguration);
+    static final LegacyMagicBitboard BISHOP = new LegacyMagicBitboard(MagicBitboard.BISHOP, Configuration::bishopConfiguration);
+
+    private final long[] magics;
+
+    private final long[] masks;
+    private final long[] hashShifts;
+    private final int[] hashMasks;
+
+    private final long[][] attacks;
+
+    private LegacyMagicBitboard(final MagicBitboard magicBitboard, final BiFunction<Square, Long, Configuration> configurationGenerator) {
+        this.magics = new long[64];
+
+        this.masks = new long[64];
+        this.hashShifts = new long[64];
+        this.hashMasks = new int[64];
+
+        this.attacks = new long[64][];
+
+        for (final Square square : Square.values()) {
+            final int index = square.getBitboardIndex();
+
+            final Configuration configuration = configurationGenerator.apply(square, magicBitboard.getMagic(index));
+
+            this.magics[index] = configuration.getMagic();
+            this.masks[index] = configuration.getMask();
+            this.hashShifts[index] = configuration.getHashShift();
+            this.hashMasks[index] = configuration.getHashMask();
+
+            this.attacks[index] = configuration.generateAllAttacks();
+        }
+    }
+
+    long attacks(final long occupancy, final int squareIndex) {
+        return attacks[squareIndex][hash(occupancy, squareIndex)];
+    }
+
+    private int hash(final long l, final int squareIndex) {
+        return ((int) ((((l & masks[squareIndex]) * magics[squareIndex]) >> hashShifts[squareIndex]) & hashMasks[squareIndex]));
+    }
+}
@@ -0,0 +1,141 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.core.ColoredPiece;
+import net.marvk.chess.core.Fen;
+import net.marvk.chess.core.Piece;
+import net.marvk.chess.core.Square;
+import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.core.bitboards.MagicBitboard;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the flat fancy magic layout of {@link MagicBitboard} with the {@link LegacyMagicBitboard legacy layout}
+ * using the access patterns of the move generator (attacks of every slider of the active player) and of the check
+ * test (rook and bishop attacks from the king square).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MagicBitboardBenchmark {
+    // per position
+    private long[] occupancies;
+    private int[] kingSquares;
+
+    // per slider of the active player
+    private long[] sliderOccupancies;
+    private int[] sliderSquares;
+    private boolean[] sliderOrthogonal;
+
+    @Setup
+    public void setup() {
+        occupancies = new long[Positions.FENS.length];
+        kingSquares = new int[Positions.FENS.length];
+
+        final List<Long> sliderOccupancyList = new ArrayList<>();
+        final List<Integer> sliderSquareList = new ArrayList<>();
+        final List<Boolean> sliderOrthogonalList = new ArrayList<>();
+
+        for (int i = 0; i < Positions.FENS.length; i++) {
+            final Bitboard board = new Bitboard(Fen.parse(Positions.FENS[i]));
+
+            long occupancy = 0L;
+
+            for (final Square square : Square.values()) {
+                if (board.getPiece(square) != null) {
+                    occupancy |= square.getOccupiedBitMask();
+                }
+            }
+
+            occupancies[i] = occupancy;
+
+            for (final Square square : Square.values()) {
+                final ColoredPiece piece = board.getPiece(square);
+
+                if (piece == null || piece.getColor() != board.getActivePlayer()) {
+                    continue;
+                }
+
+                if (piece.getPiece() == Piece.KING) {
+                    kingSquares[i] = square.getBitboardIndex();
+                }
+
+                if (piece.getPiece() == Piece.ROOK || piece.getPiece() == Piece.QUEEN) {
+                    sliderOccupancyList.add(occupancy);
+                    sliderSquareList.add(square.getBitboardIndex());
+                    sliderOrthogonalList.add(true);
+                }
+
+                if (piece.getPiece() == Piece.BISHOP || piece.getPiece() == Piece.QUEEN) {
+                    sliderOccupancyList.add(occupancy);
+                    sliderSquareList.add(square.getBitboardIndex());
+                    sliderOrthogonalList.add(false);
+                }
+            }
+        }
+
+        sliderOccupancies = sliderOccupancyList.stream().mapToLong(Long::longValue).toArray();
+        sliderSquares = sliderSquareList.stream().mapToInt(Integer::intValue).toArray();
+        sliderOrthogonal = new boolean[sliderOrthogonalList.size()];
+
+        for (int i = 0; i < sliderOrthogonal.length; i++) {
+            sliderOrthogonal[i] = sliderOrthogonalList.get(i);
+        }
+    }
+
+    @Benchmark
+    public long moveGenerationFancy() {
+        long result = 0L;
+
+        for (int i = 0; i < sliderSquares.length; i++) {
+            final MagicBitboard magicBitboard = sliderOrthogonal[i] ? MagicBitboard.ROOK : MagicBitboard.BISHOP;
+
+            result ^= magicBitboard.attacks(sliderOccupancies[i], sliderSquares[i]);
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public long moveGenerationLegacy() {
+        long result = 0L;
+
+        for (int i = 0; i < sliderSquares.length; i++) {
+            final LegacyMagicBitboard magicBitboard = sliderOrthogonal[i] ? LegacyMagicBitboard.ROOK : LegacyMagicBitboard.BISHOP;
+
+            result ^= magicBitboard.attacks(sliderOccupancies[i], sliderSquares[i]);
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public long isInCheckFancy() {
+        long result = 0L;
+
+        for (int i = 0; i < kingSquares.length; i++) {
+            result ^= MagicBitboard.ROOK.attacks(occupancies[i], kingSquares[i]);
+            result ^= MagicBitboard.BISHOP.attacks(occupancies[i], kingSquares[i]);
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public long isInCheckLegacy() {
+        long result = 0L;
+
+        for (int i = 0; i < kingSquares.length; i++) {
+            result ^= LegacyMagicBitboard.ROOK.attacks(occupancies[i], kingSquares[i]);
+            result ^= LegacyMagicBitboard.BISHOP.attacks(occupancies[i], kingSquares[i]);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,153 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.core.bitboards.MoveList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation, make and unmake, the check test and the incremental Zobrist hash over {@link Positions#FENS}. One
+ * operation covers every position, or every pseudo legal move of every position for the make and unmake benchmarks.
+ * None of these should allocate, run with {@code -prof gc} to verify.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoveGenerationBenchmark {
+    private final MoveList moveList = new MoveList();
+
+    private Bitboard[] boards;
+    private long[][] moves;
+
+    @Setup
+    public void setup() {
+        boards = Positions.boards();
+        moves = new long[boards.length][];
+
+        for (int i = 0; i < boards.length; i++) {
+            final MoveList pseudoLegalMoves = boards[i].generatePseudoLegalMoves(new MoveList());
+
+            moves[i] = new long[pseudoLegalMoves.size()];
+
+            for (int j = 0; j < moves[i].length; j++) {
+                moves[i][j] = pseudoLegalMoves.get(j);
+            }
+        }
+    }
+
+    @Benchmark
+    public int generatePseudoLegalMoves() {
+        int result = 0;
+
+        for (final Bitboard board : boards) {
+            result += board.generatePseudoLegalMoves(moveList).size();
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public int generateLegalMoves() {
+        int result = 0;
+
+        for (final Bitboard board : boards) {
+            result += board.generateLegalMoves(moveList).size();
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public int generateLegalAttackMoves() {
+        int result = 0;
+
+        for (final Bitboard board : boards) {
+            result += board.generateLegalAttackMoves(moveList).size();
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public int makeUnmake() {
+        int result = 0;
+
+        for (int i = 0; i < boards.length; i++) {
+            final Bitboard board = boards[i];
+
+            for (final long move : moves[i]) {
+                board.make(move);
+                result += board.getHalfmoveClock();
+                board.unmake(move);
+            }
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public int makeIsInvalidPositionUnmake() {
+        int result = 0;
+
+        for (int i = 0; i < boards.length; i++) {
+            final Bitboard board = boards[i];
+
+            for (final long move : moves[i]) {
+                board.make(move);
+
+                if (!board.isInvalidPosition()) {
+                    result++;
+                }
+
+                board.unmake(move);
+            }
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public long makeZobristHashUnmake() {
+        long result = 0L;
+
+        for (int i = 0; i < boards.length; i++) {
+            final Bitboard board = boards[i];
+
+            for (final long move : moves[i]) {
+                board.make(move);
+                result ^= board.zobristHash();
+                board.unmake(move);
+            }
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public int isInCheck() {
+        int result = 0;
+
+        for (final Bitboard board : boards) {
+            if (board.isInCheck()) {
+                result++;
+            }
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public boolean hasAnyLegalMove() {
+        boolean result = true;
+
+        for (final Bitboard board : boards) {
+            result &= board.hasAnyLegalMove();
+        }
+
+        return result;
+    }
+}
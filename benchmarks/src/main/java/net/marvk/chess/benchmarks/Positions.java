@@ -0,0 +1,32 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.core.bitboards.Bitboard;
+
+/**
+ * The standard position set shared by the benchmarks, the initial position and the well known perft positions 2 to 6,
+ * which together cover castling, en passant, promotions, pins and checks.
+ */
+final class Positions {
+    static final String[] FENS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"
+    };
+
+    private Positions() {
+        throw new AssertionError("No instances of utility class " + Positions.class);
+    }
+
+    static Bitboard[] boards() {
+        final Bitboard[] result = new Bitboard[FENS.length];
+
+        for (int i = 0; i < result.length; i++) {
+            result[i] = Bitboard.fromFen(FENS[i]);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,69 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.core.Fen;
+import net.marvk.chess.core.UciMove;
+import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.core.bitboards.MoveList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaying the move history of a UCI {@code position} command with {@link UciMove#getBoard(UciMove[])}, see
+ * {@link FenBenchmark} for the FEN variant. The game is a deterministic random playout of {@link #plies} plies from
+ * the initial position.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProtocolBenchmark {
+    @Param({"20", "80"})
+    private int plies;
+
+    private UciMove[] game;
+    private String[] gameStrings;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0);
+        final Bitboard board = new Bitboard(Fen.STARTING_POSITION);
+        final MoveList moveList = new MoveList();
+
+        game = new UciMove[plies];
+        gameStrings = new String[plies];
+
+        for (int i = 0; i < plies; i++) {
+            board.generateLegalMoves(moveList);
+
+            if (moveList.isEmpty()) {
+                throw new IllegalStateException("Game ended after " + i + " plies, pick a different seed");
+            }
+
+            final long move = moveList.get(random.nextInt(moveList.size()));
+
+            game[i] = Bitboard.BBMove.asUciMove(move);
+            gameStrings[i] = game[i].toString();
+            board.make(move);
+        }
+    }
+
+    @Benchmark
+    public Bitboard getBoard() {
+        return UciMove.getBoard(game);
+    }
+
+    @Benchmark
+    public Bitboard parseMovesAndGetBoard() {
+        final UciMove[] moves = new UciMove[gameStrings.length];
+
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = UciMove.parse(gameStrings[i]);
+        }
+
+        return UciMove.getBoard(moves);
+    }
+}
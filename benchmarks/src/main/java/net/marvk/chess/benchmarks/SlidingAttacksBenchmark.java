@@ -0,0 +1,66 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.core.Fen;
+import net.marvk.chess.core.Square;
+import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.core.bitboards.MagicBitboard;
+import net.marvk.chess.core.bitboards.PextAttackTable;
+import net.marvk.chess.core.bitboards.SlidingAttackTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the magic bitboard and the {@code Long.compress} sliding attack backends by looking up the rook and bishop
+ * attacks of every square in a set of positions. The compress backend is only meaningful on Java 19 and newer, where
+ * the multi release jar provides the intrinsified implementation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SlidingAttacksBenchmark {
+    @Param({"MAGIC", "PEXT"})
+    private String backend;
+
+    private SlidingAttackTable rook;
+    private SlidingAttackTable bishop;
+
+    private long[] occupancies;
+
+    @Setup
+    public void setup() {
+        final boolean pext = "PEXT".equals(backend);
+
+        rook = pext ? PextAttackTable.ROOK : MagicBitboard.ROOK;
+        bishop = pext ? PextAttackTable.BISHOP : MagicBitboard.BISHOP;
+
+        occupancies = new long[Positions.FENS.length];
+
+        for (int i = 0; i < occupancies.length; i++) {
+            final Bitboard board = new Bitboard(Fen.parse(Positions.FENS[i]));
+
+            for (final Square square : Square.values()) {
+                if (board.getPiece(square) != null) {
+                    occupancies[i] |= square.getOccupiedBitMask();
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public long attacks() {
+        long result = 0L;
+
+        for (final long occupancy : occupancies) {
+            for (int square = 0; square < 64; square++) {
+                result ^= rook.attacks(occupancy, square);
+                result ^= bishop.attacks(occupancy, square);
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,104 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.core.UciMove;
+import net.marvk.chess.kairukuengine.KairukuEngine;
+import net.marvk.chess.uci4j.Go;
+import net.marvk.chess.uci4j.UiChannel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lazy SMP scaling of {@link KairukuEngine} over the {@code Threads} option. {@link #timeToDepth()} measures how long
+ * the fixed depth searches of every position in {@link Positions#FENS} take, {@link #nodesPerSecond(Nodes)} reports
+ * the nodes searched by all threads per second as the {@code nodes} counter. The results only show scaling on machines
+ * with at least as many cores as threads.
+ */
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SmpBenchmark {
+    private static final UciMove[] NO_MOVES = new UciMove[0];
+
+    @Param({"1", "2", "4", "8", "16"})
+    private int threads;
+
+    @Param({"5"})
+    private int depth;
+
+    private final BlockingQueue<UciMove> bestMoves = new ArrayBlockingQueue<>(1);
+
+    private KairukuEngine engine;
+    private Go go;
+
+    @Setup
+    public void setup() {
+        engine = new KairukuEngine(new UiChannel() {
+            @Override
+            public void bestMove(final UciMove move) {
+                bestMoves.add(move);
+            }
+        });
+
+        engine.setOption("Threads", Integer.toString(threads));
+
+        go = Go.builder().depth(depth).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.quit();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int timeToDepth() throws InterruptedException {
+        int result = 0;
+
+        for (final String fen : Positions.FENS) {
+            result += search(fen).hashCode();
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int nodesPerSecond(final Nodes nodes) throws InterruptedException {
+        int result = 0;
+
+        for (final String fen : Positions.FENS) {
+            result += search(fen).hashCode();
+            nodes.nodes += engine.getMetrics().getLastNodes();
+        }
+
+        return result;
+    }
+
+    private UciMove search(final String fen) throws InterruptedException {
+        engine.uciNewGame();
+        engine.position(fen, NO_MOVES);
+        engine.go(go);
+
+        return bestMoves.take();
+    }
+
+    /**
+     * Normalized like the benchmark score, so in throughput mode it is reported as nodes per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0L;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.kairukuengine.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transposition table probes and stores with uniformly distributed keys, as produced by Zobrist hashing. The table is
+ * filled with {@link #load} times its capacity of entries before measuring, so probes of the measured keys hit unless
+ * the key has been replaced and stores replace other entries once the buckets are full.
+ *
+ * <p>The on-heap table is compared against the direct and memory mapped off-heap tables, the fork gets enough heap and
+ * direct memory for the largest size.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-XX:MaxDirectMemorySize=2g"})
+@State(Scope.Benchmark)
+public class TranspositionTableBenchmark {
+    private static final int KEYS = 1 << 16;
+
+    @Param({"HEAP", "DIRECT", "MAPPED"})
+    private TranspositionTable.Storage storage;
+
+    @Param({"16", "256", "1024"})
+    private int megabytes;
+
+    @Param({"0.5", "1.0"})
+    private double load;
+
+    private TranspositionTable table;
+    private long[] keys;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0);
+
+        table = TranspositionTable.create(storage, megabytes);
+
+        for (int i = 0; i < table.capacity() * load; i++) {
+            table.store(random.nextLong(), 0, 0, 4, TranspositionTable.NodeType.EXACT);
+        }
+
+        keys = new long[KEYS];
+
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = random.nextLong();
+            table.store(keys[i], 0, 0, 4, TranspositionTable.NodeType.EXACT);
+        }
+    }
+
+    @Benchmark
+    public long probe() {
+        index = (index + 1) & (KEYS - 1);
+
+        return table.probe(keys[index]);
+    }
+
+    @Benchmark
+    public void store() {
+        index = (index + 1) & (KEYS - 1);
+
+        table.store(keys[index], index, index, 4, TranspositionTable.NodeType.LOWERBOUND);
+    }
+}
@@ -1,20 +1,10 @@
 package net.marvk.chess.core;
 
-import java.util.Arrays;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
+/**
+ * Validated FEN with its fields as strings. To load a FEN into a board without the intermediate strings, use the
+ * {@link FenReader}.
+ */
 public final class Fen {
-    private static final Pattern FEN_PATTERN = Pattern.compile("^" +
-            "(?<piecePlacement>(?!.{0,6}[1-8][1-8])[PNBRQKpnbrqk1-8]{1,8}(?:/(?!.{0,6}[1-8][1-8])[PNBRQKpnbrqk1-8]{1,8}){7}) " +
-            "(?<activeColor>[bw]) " +
-            "(?<castlingAvailability>(?=[KQkq])(?:K?Q?k?q?)|-) " +
-            "(?<enPassantTargetSquare>[a-h][1-8]|-)(:? " +
-            "(?<halfmoveClock>\\d+) " +
-            "(?<fullmoveClock>\\d+))?" +
-            "$"
-    );
-
     public static final Fen EMPTY_BOARD = Fen.parse("8/8/8/8/8/8/8/8 w - -");
     public static final Fen STARTING_POSITION = Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
 
@@ -27,42 +17,36 @@ public final class Fen {
     private final String fullmoveClock;
 
     private Fen(final String input) {
-        this(input, FEN_PATTERN.matcher(input));
-
-        if (!isValid()) {
-            throw new IllegalArgumentException("Input string is not a valid FEN notation");
-        }
-    }
-
-    private Fen(final String input, final Matcher matcher) {
-        if (!matcher.matches()) {
-            throw new IllegalArgumentException("Input string is not a valid FEN notation: " + input);
-        }
+        FenReader.validate(input);
 
         this.input = input;
-        this.piecePlacement = matcher.group("piecePlacement");
-        this.activeColor = matcher.group("activeColor");
-        this.castlingAvailability = matcher.group("castlingAvailability");
-        this.enPassantTargetSquare = matcher.group("enPassantTargetSquare");
 
-        final String halfmoveClock = matcher.group("halfmoveClock");
-        this.halfmoveClock = halfmoveClock == null ? "0" : halfmoveClock;
-
-        final String fullmoveClock = matcher.group("fullmoveClock");
-        this.fullmoveClock = fullmoveClock == null ? "1" : fullmoveClock;
+        // the reader guarantees single spaces between exactly four or six fields
+        final int piecePlacementEnd = input.indexOf(' ');
+        final int activeColorEnd = input.indexOf(' ', piecePlacementEnd + 1);
+        final int castlingAvailabilityEnd = input.indexOf(' ', activeColorEnd + 1);
+        final int enPassantTargetSquareEnd = nextSpaceOrEnd(input, castlingAvailabilityEnd + 1);
+
+        this.piecePlacement = input.substring(0, piecePlacementEnd);
+        this.activeColor = input.substring(piecePlacementEnd + 1, activeColorEnd);
+        this.castlingAvailability = input.substring(activeColorEnd + 1, castlingAvailabilityEnd);
+        this.enPassantTargetSquare = input.substring(castlingAvailabilityEnd + 1, enPassantTargetSquareEnd);
+
+        if (enPassantTargetSquareEnd == input.length()) {
+            this.halfmoveClock = "0";
+            this.fullmoveClock = "1";
+        } else {
+            final int halfmoveClockEnd = input.indexOf(' ', enPassantTargetSquareEnd + 1);
+
+            this.halfmoveClock = input.substring(enPassantTargetSquareEnd + 1, halfmoveClockEnd);
+            this.fullmoveClock = input.substring(halfmoveClockEnd + 1);
+        }
     }
 
-    private boolean isValid() {
-        final String[] rows = piecePlacement.split("/");
+    private static int nextSpaceOrEnd(final String input, final int fromIndex) {
+        final int result = input.indexOf(' ', fromIndex);
 
-        final boolean piecePlacementRowsValid =
-                Arrays.stream(rows)
-                      .mapToInt(s -> s.chars().map(Fen::piecePlacementLength).sum())
-                      .noneMatch(rowSum -> rowSum != 8);
-
-        final boolean castlingAvailabilityValid = !castlingAvailability.isEmpty();
-
-        return piecePlacementRowsValid && castlingAvailabilityValid;
+        return result < 0 ? input.length() : result;
     }
 
     public static Fen parse(final String input) {
@@ -70,21 +54,7 @@ public final class Fen {
     }
 
     public static boolean isValid(final String input) {
-        final Matcher matcher = FEN_PATTERN.matcher(input.trim());
-
-        if (!matcher.matches()) {
-            return false;
-        }
-
-        return new Fen(input, matcher).isValid();
-    }
-
-    private static int piecePlacementLength(final int i) {
-        if (Character.isDigit(i)) {
-            return i - '0';
-        }
-
-        return 1;
+        return FenReader.isValid(input);
     }
 
     public String getInput() {
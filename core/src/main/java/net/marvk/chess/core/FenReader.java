@@ -0,0 +1,263 @@
+package net.marvk.chess.core;
+
+/**
+ * Single pass FEN reader that validates the input and reports each field to a {@link Sink} as it is read, without
+ * splitting the input or allocating intermediate strings. Accepts the same notation as {@link Fen}, leading and
+ * trailing whitespace is ignored and the halfmove and fullmove clocks default to 0 and 1 if both are missing.
+ */
+public final class FenReader {
+    private static final Sink VALIDATING_SINK = new Sink() {
+    };
+
+    private final CharSequence input;
+    private final int end;
+
+    private int index;
+
+    private FenReader(final CharSequence input) {
+        this.input = input;
+
+        int start = 0;
+        int end = input.length();
+
+        while (start < end && input.charAt(start) <= ' ') {
+            start++;
+        }
+
+        while (end > start && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        this.index = start;
+        this.end = end;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the input is not a valid FEN, the sink may already have received some fields
+     */
+    public static void read(final CharSequence input, final Sink sink) {
+        new FenReader(input).read(sink);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the input is not a valid FEN
+     */
+    public static void validate(final CharSequence input) {
+        read(input, VALIDATING_SINK);
+    }
+
+    public static boolean isValid(final CharSequence input) {
+        try {
+            validate(input);
+            return true;
+        } catch (final IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void read(final Sink sink) {
+        readPiecePlacement(sink);
+        expect(' ');
+        readActiveColor(sink);
+        expect(' ');
+        readCastlingAvailability(sink);
+        expect(' ');
+        readEnPassantTargetSquare(sink);
+
+        if (index == end) {
+            sink.clocks(0, 1);
+            return;
+        }
+
+        expect(' ');
+        final int halfmoveClock = readNumber();
+        expect(' ');
+        final int fullmoveClock = readNumber();
+
+        if (index != end) {
+            throw invalid();
+        }
+
+        sink.clocks(halfmoveClock, fullmoveClock);
+    }
+
+    private void readPiecePlacement(final Sink sink) {
+        for (int rank = 7; rank >= 0; rank--) {
+            if (rank != 7) {
+                expect('/');
+            }
+
+            int file = 0;
+            boolean previousWasDigit = false;
+
+            while (index < end && file < 8) {
+                final char c = input.charAt(index);
+
+                if (c >= '1' && c <= '8') {
+                    if (previousWasDigit) {
+                        throw invalid();
+                    }
+
+                    file += c - '0';
+                    previousWasDigit = true;
+                } else if (isPiece(c)) {
+                    sink.piece(rank * 8 + file, c);
+                    file++;
+                    previousWasDigit = false;
+                } else {
+                    break;
+                }
+
+                index++;
+            }
+
+            if (file != 8) {
+                throw invalid();
+            }
+        }
+    }
+
+    private void readActiveColor(final Sink sink) {
+        final char c = next();
+
+        if (c == 'w') {
+            sink.activeColor(Color.WHITE);
+        } else if (c == 'b') {
+            sink.activeColor(Color.BLACK);
+        } else {
+            throw invalid();
+        }
+    }
+
+    private void readCastlingAvailability(final Sink sink) {
+        if (peek() == '-') {
+            index++;
+            return;
+        }
+
+        final String order = "KQkq";
+
+        int orderIndex = 0;
+        int count = 0;
+
+        while (index < end && input.charAt(index) != ' ') {
+            final int position = order.indexOf(input.charAt(index), orderIndex);
+
+            if (position < 0) {
+                throw invalid();
+            }
+
+            sink.castlingAvailability(input.charAt(index));
+
+            orderIndex = position + 1;
+            count++;
+            index++;
+        }
+
+        if (count == 0) {
+            throw invalid();
+        }
+    }
+
+    private void readEnPassantTargetSquare(final Sink sink) {
+        final char file = next();
+
+        if (file == '-') {
+            return;
+        }
+
+        final char rank = next();
+
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            throw invalid();
+        }
+
+        sink.enPassantTargetSquare((rank - '1') * 8 + (file - 'a'));
+    }
+
+    private int readNumber() {
+        final int start = index;
+
+        long result = 0L;
+
+        while (index < end && input.charAt(index) >= '0' && input.charAt(index) <= '9') {
+            result = result * 10 + input.charAt(index) - '0';
+
+            if (result > Integer.MAX_VALUE) {
+                throw invalid();
+            }
+
+            index++;
+        }
+
+        if (index == start) {
+            throw invalid();
+        }
+
+        return (int) result;
+    }
+
+    private void expect(final char expected) {
+        if (next() != expected) {
+            throw invalid();
+        }
+    }
+
+    private char next() {
+        final char result = peek();
+        index++;
+        return result;
+    }
+
+    private char peek() {
+        if (index >= end) {
+            throw invalid();
+        }
+
+        return input.charAt(index);
+    }
+
+    private IllegalArgumentException invalid() {
+        return new IllegalArgumentException("Input string is not a valid FEN notation: " + input);
+    }
+
+    private static boolean isPiece(final char c) {
+        switch (c) {
+            case 'P':
+            case 'N':
+            case 'B':
+            case 'R':
+            case 'Q':
+            case 'K':
+            case 'p':
+            case 'n':
+            case 'b':
+            case 'r':
+            case 'q':
+            case 'k':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Receives the fields of a FEN in input order. Square indices are bitboard indices, {@code rank * 8 + file}.
+     */
+    public interface Sink {
+        default void piece(final int squareIndex, final char san) {
+        }
+
+        default void activeColor(final Color color) {
+        }
+
+        default void castlingAvailability(final char castle) {
+        }
+
+        default void enPassantTargetSquare(final int squareIndex) {
+        }
+
+        default void clocks(final int halfmoveClock, final int fullmoveClock) {
+        }
+    }
+}
@@ -41,7 +41,7 @@ public class UciMove {
     private static Bitboard getBoard(final UciMove[] uciMoves, final Bitboard startingBoard) {
         for (final UciMove uciMove : uciMoves) {
             final Bitboard.BBMove move =
-                    startingBoard.generatePseudoLegalMoves()
+                    startingBoard.generateLegalMoves()
                                  .stream()
                                  .filter(p -> p.asUciMove().equals(uciMove))
                                  .findFirst()
@@ -5,8 +5,6 @@ import lombok.ToString;
 import net.marvk.chess.core.*;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 
 import static net.marvk.chess.core.bitboards.MoveConstants.*;
@@ -27,6 +25,11 @@ public class Bitboard {
     private static final long[] WHITE_PAWN_ATTACKS;
     private static final long[] BLACK_PAWN_ATTACKS;
 
+    // square -> square, the squares strictly between two squares on a shared rank, file or diagonal
+    private static final long[][] BETWEEN;
+    // square -> square, the full rank, file or diagonal through two squares
+    private static final long[][] LINE;
+
     private static final int KING_VALUE = 0;
     private static final int QUEEN_VALUE = 900;
     private static final int ROOK_VALUE = 500;
@@ -34,6 +37,10 @@ public class Bitboard {
     private static final int KNIGHT_VALUE = 320;
     private static final int PAWN_VALUE = 100;
 
+    // piece -> contribution to the game phase, 24 with all pieces on the board and 0 with only kings and pawns
+    private static final int[] PHASE_WEIGHTS = {0, 0, 1, 1, 2, 4, 0};
+    private static final int MAX_PHASE = 24;
+
     static {
         SQUARES = new Square[64];
 
@@ -41,31 +48,83 @@ public class Bitboard {
             SQUARES[square.getBitboardIndex()] = square;
         }
 
-        KNIGHT_ATTACKS = new long[64];
+        final long[] loadedStaticAttacks = PrecomputedTables.get(PrecomputedTables.STATIC_ATTACKS);
+        final long[] staticAttacks = loadedStaticAttacks != null && loadedStaticAttacks.length == 4 * 64 ? loadedStaticAttacks : generateStaticAttacks();
 
-        for (final Square square : SQUARES) {
-            KNIGHT_ATTACKS[square.getBitboardIndex()] = staticAttacks(Direction.KNIGHT_DIRECTIONS, square);
+        KNIGHT_ATTACKS = Arrays.copyOfRange(staticAttacks, 0, 64);
+        KING_ATTACKS = Arrays.copyOfRange(staticAttacks, 64, 2 * 64);
+        WHITE_PAWN_ATTACKS = Arrays.copyOfRange(staticAttacks, 2 * 64, 3 * 64);
+        BLACK_PAWN_ATTACKS = Arrays.copyOfRange(staticAttacks, 3 * 64, 4 * 64);
+
+        final long[] loadedLines = PrecomputedTables.get(PrecomputedTables.LINES);
+        final long[] lines = loadedLines != null && loadedLines.length == 2 * 64 * 64 ? loadedLines : generateLines(SlidingAttacks.ROOK, SlidingAttacks.BISHOP);
+
+        BETWEEN = new long[64][];
+        LINE = new long[64][];
+
+        for (int i = 0; i < 64; i++) {
+            BETWEEN[i] = Arrays.copyOfRange(lines, i * 64, (i + 1) * 64);
+            LINE[i] = Arrays.copyOfRange(lines, (64 + i) * 64, (64 + i + 1) * 64);
         }
+    }
 
-        KING_ATTACKS = new long[64];
+    /**
+     * @return the knight, king, white pawn and black pawn attacks of each square, one after the other
+     */
+    static long[] generateStaticAttacks() {
+        final long[] result = new long[4 * 64];
 
         for (final Square square : SQUARES) {
-            KING_ATTACKS[square.getBitboardIndex()] = staticAttacks(Direction.CARDINAL_DIRECTIONS, square);
+            final int index = square.getBitboardIndex();
+
+            result[index] = staticAttacks(Direction.KNIGHT_DIRECTIONS, square);
+            result[64 + index] = staticAttacks(Direction.CARDINAL_DIRECTIONS, square);
+            result[2 * 64 + index] = staticAttacks(List.of(Direction.NORTH_WEST, Direction.NORTH_EAST), square);
+            result[3 * 64 + index] = staticAttacks(List.of(Direction.SOUTH_WEST, Direction.SOUTH_EAST), square);
         }
 
-        WHITE_PAWN_ATTACKS = new long[64];
+        return result;
+    }
 
-        for (final Square square : SQUARES) {
-            WHITE_PAWN_ATTACKS[square.getBitboardIndex()] = staticAttacks(List.of(Direction.NORTH_WEST, Direction.NORTH_EAST), square);
+    /**
+     * @return the between squares followed by the line squares of each pair of squares, row major
+     */
+    static long[] generateLines(final SlidingAttackTable rook, final SlidingAttackTable bishop) {
+        final long[] result = new long[2 * 64 * 64];
+
+        for (int i = 0; i < 64; i++) {
+            for (int j = 0; j < 64; j++) {
+                if (i != j) {
+                    initializeLine(result, rook, i, j);
+                    initializeLine(result, bishop, i, j);
+                }
+            }
         }
 
-        BLACK_PAWN_ATTACKS = new long[64];
+        return result;
+    }
 
-        for (final Square square : SQUARES) {
-            BLACK_PAWN_ATTACKS[square.getBitboardIndex()] = staticAttacks(List.of(Direction.SOUTH_WEST, Direction.SOUTH_EAST), square);
+    private static void initializeLine(final long[] lines, final SlidingAttackTable attackTable, final int i, final int j) {
+        final long iSquare = 1L << i;
+        final long jSquare = 1L << j;
+
+        if ((attackTable.attacks(0L, i) & jSquare) == 0L) {
+            return;
         }
+
+        lines[i * 64 + j] = attackTable.attacks(jSquare, i) & attackTable.attacks(iSquare, j);
+        lines[(64 + i) * 64 + j] = (attackTable.attacks(0L, i) & attackTable.attacks(0L, j)) | iSquare | jSquare;
     }
 
+    /**
+     * Set the system property to {@code true} to compare the incremental zobrist hash against a full recomputation on every access
+     */
+    private static final boolean VERIFY_ZOBRIST_HASH = Boolean.getBoolean("net.marvk.chess.verifyZobristHash");
+
+    // mailbox entries hold the piece const in the lower three bits and the color const above
+    private static final int MAILBOX_PIECE_MASK = 0b111;
+    private static final int MAILBOX_COLOR_SHIFT = 3;
+
     private static final Piece[] PIECES = {
             null,
             Piece.PAWN,
@@ -76,6 +135,28 @@ public class Bitboard {
             Piece.KING
     };
 
+    // color -> piece
+    private static final ColoredPiece[][] COLORED_PIECES = {
+            {
+                    null,
+                    ColoredPiece.WHITE_PAWN,
+                    ColoredPiece.WHITE_KNIGHT,
+                    ColoredPiece.WHITE_BISHOP,
+                    ColoredPiece.WHITE_ROOK,
+                    ColoredPiece.WHITE_QUEEN,
+                    ColoredPiece.WHITE_KING
+            },
+            {
+                    null,
+                    ColoredPiece.BLACK_PAWN,
+                    ColoredPiece.BLACK_KNIGHT,
+                    ColoredPiece.BLACK_BISHOP,
+                    ColoredPiece.BLACK_ROOK,
+                    ColoredPiece.BLACK_QUEEN,
+                    ColoredPiece.BLACK_KING
+            }
+    };
+
     private static final int[] BLACK_KING_TABLE_LATE = {
             -50, -40, -30, -20, -20, -30, -40, -50,
             -30, -20, -10, 0, 0, -10, -20, -30,
@@ -246,10 +327,24 @@ public class Bitboard {
     private Color turn;
     private long enPassant = 0L;
 
+    // layout of the state returned by makeNull, the en passant square index in the low byte and the halfmove clock above
+    private static final int NULL_MOVE_HALFMOVE_SHIFT = 8;
+    private static final long NULL_MOVE_EN_PASSANT_MASK = 0xFFL;
+
     private int fullmoveClock;
     private int halfmoveClock;
 
-//    private long zobristHash;
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+
+    // square -> piece, mirrors the piece bitboards for constant time piece lookups
+    private final byte[] mailbox;
+
+    private long zobristHash;
+
+    // sums of the piece square values of both sides for the middlegame and endgame tables, see pieceSquareValue
+    private int pieceSquareValueMid;
+    private int pieceSquareValueLate;
+    private int phase;
 
     /**
      * Copy constructor
@@ -266,99 +361,136 @@ public class Bitboard {
         this.fullmoveClock = previous.fullmoveClock;
         this.halfmoveClock = previous.halfmoveClock;
 
-//        this.zobristHash = zobristHash();
+        this.mailbox = previous.mailbox.clone();
+
+        this.zobristHash = previous.zobristHash;
+
+        this.pieceSquareValueMid = previous.pieceSquareValueMid;
+        this.pieceSquareValueLate = previous.pieceSquareValueLate;
+        this.phase = previous.phase;
     }
 
     public Bitboard(final Fen fen) {
+        this(fen.getInput());
+    }
+
+    private Bitboard(final CharSequence fen) {
         this.white = new PlayerBoard();
         this.black = new PlayerBoard();
 
-        turn = Color.getColorFromFen(fen.getActiveColor());
-        halfmoveClock = Integer.parseInt(fen.getHalfmoveClock());
-        fullmoveClock = Integer.parseInt(fen.getFullmoveClock());
+        this.mailbox = new byte[64];
 
-        fen.getCastlingAvailability().chars().forEach(e -> {
-            if (e == 'K') {
-                white.kingSideCastle = true;
-            } else if (e == 'Q') {
-                white.queenSideCastle = true;
-            } else if (e == 'k') {
-                black.kingSideCastle = true;
-            } else if (e == 'q') {
-                black.queenSideCastle = true;
-            }
-        });
+        FenReader.read(fen, new FenLoader());
 
-        final Square squareFromFen = Square.getSquareFromFen(fen.getEnPassantTargetSquare());
+        white.updateOccupancy();
+        black.updateOccupancy();
 
-        if (squareFromFen != null) {
-            enPassant = squareFromFen.getOccupiedBitMask();
-        }
+        this.zobristHash = computeZobristHash();
 
-        loadFen(fen);
+        computeScores();
+    }
 
-//        this.zobristHash = zobristHash();
+    /**
+     * Reads the FEN directly into a new board in a single pass, without creating a {@link Fen}
+     *
+     * @throws IllegalArgumentException if the input is not a valid FEN
+     */
+    public static Bitboard fromFen(final CharSequence fen) {
+        return new Bitboard(fen);
     }
 
-    private void loadFen(final Fen fen) {
-        final String[] split = fen.getPiecePlacement().split("/");
+    private void computeScores() {
+        pieceSquareValueMid = 0;
+        pieceSquareValueLate = 0;
+        phase = 0;
 
-        for (int i = 0; i < split.length; i++) {
-            final String line = split[8 - i - 1];
+        white.material = 0;
+        black.material = 0;
 
-            for (int j = 0, lineIndex = 0; j < line.length(); j++) {
-                final char c = line.charAt(j);
+        for (int i = 0; i < 64; i++) {
+            final int entry = mailbox[i];
 
-                if (Character.isDigit(c)) {
-                    lineIndex += c - '0';
-                    continue;
-                }
+            if (entry == NO_PIECE) {
+                continue;
+            }
 
-                final int index = i * 8 + lineIndex;
-
-                final long shift = 1L << index;
-
-                switch (c) {
-                    case 'k':
-                        black.kings |= shift;
-                        break;
-                    case 'K':
-                        white.kings |= shift;
-                        break;
-                    case 'q':
-                        black.queens |= shift;
-                        break;
-                    case 'Q':
-                        white.queens |= shift;
-                        break;
-                    case 'r':
-                        black.rooks |= shift;
-                        break;
-                    case 'R':
-                        white.rooks |= shift;
-                        break;
-                    case 'b':
-                        black.bishops |= shift;
-                        break;
-                    case 'B':
-                        white.bishops |= shift;
-                        break;
-                    case 'n':
-                        black.knights |= shift;
-                        break;
-                    case 'N':
-                        white.knights |= shift;
-                        break;
-                    case 'p':
-                        black.pawns |= shift;
-                        break;
-                    case 'P':
-                        white.pawns |= shift;
-                        break;
-                }
+            final int color = entry >> MAILBOX_COLOR_SHIFT;
+            final int piece = entry & MAILBOX_PIECE_MASK;
+
+            pieceSquareValueMid += PIECE_SQUARE_VALUES[color][piece][0][i];
+            pieceSquareValueLate += PIECE_SQUARE_VALUES[color][piece][1][i];
+            phase += PHASE_WEIGHTS[piece];
 
-                lineIndex++;
+            (color == WHITE ? white : black).material += pieceValue(piece);
+        }
+    }
+
+    private final class FenLoader implements FenReader.Sink {
+        @Override
+        public void piece(final int squareIndex, final char san) {
+            final int color = Character.isUpperCase(san) ? WHITE : BLACK;
+            final PlayerBoard board = color == WHITE ? white : black;
+            final long square = 1L << squareIndex;
+
+            final int piece;
+
+            switch (Character.toLowerCase(san)) {
+                case 'k':
+                    board.kings |= square;
+                    piece = KING;
+                    break;
+                case 'q':
+                    board.queens |= square;
+                    piece = QUEEN;
+                    break;
+                case 'r':
+                    board.rooks |= square;
+                    piece = ROOK;
+                    break;
+                case 'b':
+                    board.bishops |= square;
+                    piece = BISHOP;
+                    break;
+                case 'n':
+                    board.knights |= square;
+                    piece = KNIGHT;
+                    break;
+                default:
+                    board.pawns |= square;
+                    piece = PAWN;
+                    break;
             }
+
+            mailbox[squareIndex] = mailboxEntry(color, piece);
+        }
+
+        @Override
+        public void activeColor(final Color color) {
+            turn = color;
+        }
+
+        @Override
+        public void castlingAvailability(final char castle) {
+            if (castle == 'K') {
+                white.kingSideCastle = true;
+            } else if (castle == 'Q') {
+                white.queenSideCastle = true;
+            } else if (castle == 'k') {
+                black.kingSideCastle = true;
+            } else if (castle == 'q') {
+                black.queenSideCastle = true;
+            }
+        }
+
+        @Override
+        public void enPassantTargetSquare(final int squareIndex) {
+            enPassant = 1L << squareIndex;
+        }
+
+        @Override
+        public void clocks(final int halfmoveClock, final int fullmoveClock) {
+            Bitboard.this.halfmoveClock = halfmoveClock;
+            Bitboard.this.fullmoveClock = fullmoveClock;
         }
     }
 
@@ -436,57 +568,470 @@ public class Bitboard {
         return false;
     }
 
+    /**
+     * Faster than generating all legal moves and checking whether the result is empty, only looks for a single legal
+     * target square without encoding any moves
+     *
+     * @return whether the active player has any legal move
+     */
+    public boolean hasAnyLegalMove() {
+        return moveGenerator.hasAnyLegalMove();
+    }
+
+    public List<BBMove> generateLegalMoves() {
+        return toBbMoves(generateLegalMoves(new MoveList()));
+    }
+
     public List<BBMove> generatePseudoLegalMoves() {
-        return new MoveGenerator(false).getPseudoLegalMoves();
+        return toBbMoves(generatePseudoLegalMoves(new MoveList()));
     }
 
     public List<BBMove> generatePseudoLegalAttackMoves() {
-        return new MoveGenerator(true).getPseudoLegalMoves();
+        return toBbMoves(generatePseudoLegalAttackMoves(new MoveList()));
     }
 
+    /**
+     * Clears {@code moves} and fills it with all pseudo legal moves without allocating
+     *
+     * @param moves the buffer to write to
+     * @return {@code moves}
+     */
+    public MoveList generatePseudoLegalMoves(final MoveList moves) {
+        return moveGenerator.generate(moves, true, true, true, false);
+    }
+
+    /**
+     * Clears {@code moves} and fills it with all legal moves without allocating. The moves are in the same order as
+     * the pseudo legal moves would be, so the legality check after {@link #make(long)} can be omitted.
+     *
+     * @param moves the buffer to write to
+     * @return {@code moves}
+     */
+    public MoveList generateLegalMoves(final MoveList moves) {
+        return moveGenerator.generate(moves, true, true, true, true);
+    }
+
+    /**
+     * Clears {@code moves} and fills it with all legal attack moves without allocating. Only target squares occupied by
+     * the opponent (or the en passant square) are considered.
+     *
+     * @param moves the buffer to write to
+     * @return {@code moves}
+     */
+    public MoveList generateLegalAttackMoves(final MoveList moves) {
+        return moveGenerator.generate(moves, true, false, false, true);
+    }
+
+    /**
+     * Clears {@code moves} and fills it with all legal attack moves and non capturing promotions without allocating.
+     * The MVV-LVA value of a promotion includes the material the promotion gains.
+     *
+     * @param moves the buffer to write to
+     * @return {@code moves}
+     */
+    public MoveList generateLegalTacticalMoves(final MoveList moves) {
+        return moveGenerator.generate(moves, true, true, false, true);
+    }
+
+    /**
+     * Clears {@code moves} and fills it with all legal moves that are neither attack moves nor promotions without
+     * allocating, including castling
+     *
+     * @param moves the buffer to write to
+     * @return {@code moves}
+     */
+    public MoveList generateLegalQuietMoves(final MoveList moves) {
+        return moveGenerator.generate(moves, false, false, true, true);
+    }
+
+    /**
+     * Looks up the legal move identified by {@code key} in the current position by only generating the moves of the
+     * piece on the source square. Moves can not be stored across positions as they also encode state of the position
+     * they were generated in, like the halfmove clock.
+     *
+     * @param key the key as returned by {@link BBMove#key(long)}
+     * @return the move, or {@code 0L} if there is no such legal move
+     */
+    public long findLegalMove(final int key) {
+        return moveGenerator.findLegalMove(key);
+    }
+
+    /**
+     * Clears {@code moves} and fills it with all pseudo legal attack moves without allocating
+     *
+     * @param moves the buffer to write to
+     * @return {@code moves}
+     */
+    public MoveList generatePseudoLegalAttackMoves(final MoveList moves) {
+        return moveGenerator.generate(moves, true, false, false, false);
+    }
+
+    private static List<BBMove> toBbMoves(final MoveList moves) {
+        final List<BBMove> result = new ArrayList<>(moves.size());
+
+        for (int i = 0; i < moves.size(); i++) {
+            result.add(new BBMove(moves.get(i), moves.getMvvLvaValue(i), moves.getMvvLvaSquarePieceDifferenceValue(i)));
+        }
+
+        return result;
+    }
+
+    /**
+     * Generates pseudo legal or legal moves. Legal generation computes the checkers, pinned pieces and the squares that
+     * resolve a check once per call and restricts the target squares of every piece accordingly, so that no move has to
+     * be made to test whether it leaves the king in check.
+     */
     private class MoveGenerator {
-        private final boolean onlyAttackMoves;
-        private final List<BBMove> result;
+        private boolean attackMoves;
+        private boolean pushPromotions;
+        private boolean quietMoves;
+        private boolean legal;
+        private MoveList result;
+        private MoveList lookupResult;
+
+        private PlayerBoard self;
+        private PlayerBoard opponent;
+
+        private long selfOccupancy;
+        private long opponentOccupancy;
+        private long occupancy;
+
+        private long sourceMask;
+        private long targetMask;
+        private long targetFilter;
+
+        private int kingSquare;
+        private long checkers;
+        private long pinned;
+        private long checkMask;
+
+        /**
+         * @param attackMoves    whether to generate attack moves, including capturing promotions
+         * @param pushPromotions whether to generate non capturing promotions
+         * @param quietMoves     whether to generate all other moves
+         */
+        MoveList generate(
+                final MoveList moves,
+                final boolean attackMoves,
+                final boolean pushPromotions,
+                final boolean quietMoves,
+                final boolean legal
+        ) {
+            return generate(moves, attackMoves, pushPromotions, quietMoves, legal, ~0L, ~0L);
+        }
+
+        private MoveList generate(
+                final MoveList moves,
+                final boolean attackMoves,
+                final boolean pushPromotions,
+                final boolean quietMoves,
+                final boolean legal,
+                final long sourceMask,
+                final long targetFilter
+        ) {
+            this.attackMoves = attackMoves;
+            this.pushPromotions = pushPromotions;
+            this.quietMoves = quietMoves;
+            this.legal = legal;
+            this.result = moves;
+            this.sourceMask = sourceMask;
+            this.targetFilter = targetFilter;
+
+            moves.clear();
+
+            initialize();
+
+            targetMask = ((attackMoves ? opponentOccupancy : 0L) | (quietMoves ? ~occupancy : 0L)) & targetFilter;
+
+            if (legal && Long.bitCount(self.kings) != 1) {
+                // pins and checks are only defined for exactly one king, fall back to making every move
+                this.legal = false;
+
+                getMoves();
+
+                return removeInvalidMoves();
+            }
 
-        MoveGenerator(final boolean onlyAttackMoves) {
-            this.onlyAttackMoves = onlyAttackMoves;
-            this.result = new ArrayList<>();
+            return getMoves();
         }
 
-        List<BBMove> getPseudoLegalMoves() {
-            final PlayerBoard self;
-            final long selfOccupancy;
-            final long opponentOccupancy;
+        long findLegalMove(final int key) {
+            final int sourceSquareIndex = key & 0x3F;
+            final int targetSquareIndex = (key >>> 6) & 0x3F;
 
+            if (lookupResult == null) {
+                lookupResult = new MoveList();
+            }
+
+            generate(lookupResult, true, true, true, true, 1L << sourceSquareIndex, 1L << targetSquareIndex);
+
+            for (int i = 0; i < lookupResult.size(); i++) {
+                final long move = lookupResult.get(i);
+
+                if (BBMove.key(move) == key) {
+                    return move;
+                }
+            }
+
+            return 0L;
+        }
+
+        boolean hasAnyLegalMove() {
+            initialize();
+
+            if (Long.bitCount(self.kings) != 1) {
+                return !generate(new MoveList(), true, true, true, true).isEmpty();
+            }
+
+            legal = true;
+
+            computeLegalMasks();
+
+            final long kingSource = self.kings;
+
+            if (kingTargets(kingSource, ~selfOccupancy) != 0L) {
+                return true;
+            }
+
+            if (Long.bitCount(checkers) > 1) {
+                return false;
+            }
+
+            final long nonPinned = ~pinned;
+
+            long knights = self.knights & nonPinned;
+
+            while (knights != 0L) {
+                final long source = Long.lowestOneBit(knights);
+                knights &= ~source;
+
+                if ((KNIGHT_ATTACKS[Long.numberOfTrailingZeros(source)] & ~selfOccupancy & checkMask) != 0L) {
+                    return true;
+                }
+            }
+
+            if (hasAnySlidingTarget(self.rooks | self.queens, SlidingAttacks.ROOK)
+                    || hasAnySlidingTarget(self.bishops | self.queens, SlidingAttacks.BISHOP)) {
+                return true;
+            }
+
+            final boolean whiteTurn = turn == Color.WHITE;
+            final long[] pawnAttacks = whiteTurn ? WHITE_PAWN_ATTACKS : BLACK_PAWN_ATTACKS;
+
+            long pawns = self.pawns;
+
+            while (pawns != 0L) {
+                final long source = Long.lowestOneBit(pawns);
+                pawns &= ~source;
+
+                final long allowedTargets = allowedTargets(source);
+
+                final long singleMoveTarget = whiteTurn ? source << 8 : source >>> 8;
+
+                if ((singleMoveTarget & occupancy) == 0L) {
+                    if ((singleMoveTarget & allowedTargets) != 0L) {
+                        return true;
+                    }
+
+                    final long doubleMoveTarget = whiteTurn ? singleMoveTarget << 8 : singleMoveTarget >>> 8;
+                    final long doubleMoveSourceRank = whiteTurn ? RANK_TWO_SQUARES : RANK_SEVEN_SQUARES;
+
+                    if ((source & doubleMoveSourceRank) != 0L && (doubleMoveTarget & occupancy) == 0L && (doubleMoveTarget & allowedTargets) != 0L) {
+                        return true;
+                    }
+                }
+
+                final long attacks = pawnAttacks[Long.numberOfTrailingZeros(source)];
+
+                if ((attacks & opponentOccupancy & allowedTargets) != 0L) {
+                    return true;
+                }
+
+                if ((attacks & enPassant) != 0L && isLegalEnPassant(source)) {
+                    return true;
+                }
+            }
+
+            // castling is only possible if the king can also step onto the adjacent square, which was checked above
+            return false;
+        }
+
+        private boolean hasAnySlidingTarget(final long pieces, final SlidingAttackTable attackTable) {
+            long remainingPieces = pieces;
+
+            while (remainingPieces != 0L) {
+                final long source = Long.lowestOneBit(remainingPieces);
+                remainingPieces &= ~source;
+
+                final long attacks = attackTable.attacks(occupancy, Long.numberOfTrailingZeros(source)) & ~selfOccupancy;
+
+                if ((attacks & allowedTargets(source)) != 0L) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private void initialize() {
             if (turn == Color.WHITE) {
                 self = white;
-                selfOccupancy = white.occupancy();
-                opponentOccupancy = black.occupancy();
+                opponent = black;
             } else {
                 self = black;
-                selfOccupancy = black.occupancy();
-                opponentOccupancy = white.occupancy();
+                opponent = white;
+            }
+
+            selfOccupancy = self.occupancy();
+            opponentOccupancy = opponent.occupancy();
+            occupancy = selfOccupancy | opponentOccupancy;
+        }
+
+        private void computeLegalMasks() {
+            kingSquare = Long.numberOfTrailingZeros(self.kings);
+
+            final long[] pawnAttacks = turn == Color.WHITE ? WHITE_PAWN_ATTACKS : BLACK_PAWN_ATTACKS;
+
+            final long rookSliders = opponent.rooks | opponent.queens;
+            final long bishopSliders = opponent.bishops | opponent.queens;
+
+            checkers = (SlidingAttacks.ROOK.attacks(occupancy, kingSquare) & rookSliders)
+                    | (SlidingAttacks.BISHOP.attacks(occupancy, kingSquare) & bishopSliders)
+                    | (KNIGHT_ATTACKS[kingSquare] & opponent.knights)
+                    | (pawnAttacks[kingSquare] & opponent.pawns);
+
+            if (checkers == 0L) {
+                checkMask = ~0L;
+            } else {
+                checkMask = checkers | BETWEEN[kingSquare][Long.numberOfTrailingZeros(checkers)];
+            }
+
+            // sliders that would attack the king if it were not for exactly one of our pieces
+            long snipers = (SlidingAttacks.ROOK.attacks(opponentOccupancy, kingSquare) & rookSliders)
+                    | (SlidingAttacks.BISHOP.attacks(opponentOccupancy, kingSquare) & bishopSliders);
+
+            pinned = 0L;
+
+            while (snipers != 0L) {
+                final long sniper = Long.lowestOneBit(snipers);
+                snipers &= ~sniper;
+
+                final long blockers = BETWEEN[kingSquare][Long.numberOfTrailingZeros(sniper)] & occupancy;
+
+                if (Long.bitCount(blockers) == 1) {
+                    pinned |= blockers & selfOccupancy;
+                }
+            }
+        }
+
+        private long allowedTargets(final long source) {
+            if (!legal) {
+                return ~0L;
+            }
+
+            if ((pinned & source) == 0L) {
+                return checkMask;
             }
 
-            final long occupancy = selfOccupancy | opponentOccupancy;
+            return checkMask & LINE[kingSquare][Long.numberOfTrailingZeros(source)];
+        }
+
+        private long kingTargets(final long king, final long mask) {
+            long targets = KING_ATTACKS[Long.numberOfTrailingZeros(king)] & mask;
 
-            slidingAttacks(self.queens, occupancy, selfOccupancy, MagicBitboard.ROOK, QUEEN);
-            slidingAttacks(self.rooks, occupancy, selfOccupancy, MagicBitboard.ROOK, ROOK);
-            slidingAttacks(self.queens, occupancy, selfOccupancy, MagicBitboard.BISHOP, QUEEN);
-            slidingAttacks(self.bishops, occupancy, selfOccupancy, MagicBitboard.BISHOP, BISHOP);
-            singleAttacks(self.knights, selfOccupancy, KNIGHT_ATTACKS, KNIGHT);
-            singleAttacks(self.kings, selfOccupancy, KING_ATTACKS, KING);
-            pawnAttacks(self.pawns, selfOccupancy, opponentOccupancy);
-            pawnMoves(self.pawns, occupancy);
-            castleMoves(self, occupancy);
+            if (!legal) {
+                return targets;
+            }
+
+            final long occupancyWithoutKing = occupancy & ~king;
+
+            long remainingTargets = targets;
+
+            while (remainingTargets != 0L) {
+                final long target = Long.lowestOneBit(remainingTargets);
+                remainingTargets &= ~target;
+
+                if (isInCheck(turn, target, opponent, occupancyWithoutKing)) {
+                    targets &= ~target;
+                }
+            }
+
+            return targets;
+        }
+
+        /**
+         * The en passant capture removes two pieces from the rank of the king, test the resulting occupancy for sliders
+         * directly instead of relying on the pin mask
+         */
+        private boolean isLegalEnPassant(final long source) {
+            if (!legal) {
+                return true;
+            }
+
+            final long captured = turn == Color.WHITE ? enPassant >>> 8 : enPassant << 8;
+
+            if ((checkers & ~captured & (opponent.knights | opponent.pawns)) != 0L) {
+                return false;
+            }
+
+            final long occupancyAfterCapture = occupancy ^ source ^ enPassant ^ captured;
+
+            return (SlidingAttacks.ROOK.attacks(occupancyAfterCapture, kingSquare) & (opponent.rooks | opponent.queens)) == 0L
+                    && (SlidingAttacks.BISHOP.attacks(occupancyAfterCapture, kingSquare) & (opponent.bishops | opponent.queens)) == 0L;
+        }
+
+        private MoveList removeInvalidMoves() {
+            int size = 0;
+
+            for (int i = 0; i < result.size(); i++) {
+                final long move = result.get(i);
+
+                make(move);
+
+                if (!isInvalidPosition()) {
+                    result.copy(i, size++);
+                }
+
+                unmake(move);
+            }
+
+            result.truncate(size);
 
             return result;
         }
 
-        private void castleMoves(
-                final PlayerBoard self,
-                final long occupancy
-        ) {
+        private MoveList getMoves() {
+            if (legal) {
+                computeLegalMasks();
+
+                if (Long.bitCount(checkers) > 1) {
+                    // only the king can escape a double check
+                    kingMoves(self.kings & sourceMask);
+
+                    return result;
+                }
+            }
+
+            slidingAttacks(self.queens & sourceMask, SlidingAttacks.ROOK, QUEEN);
+            slidingAttacks(self.rooks & sourceMask, SlidingAttacks.ROOK, ROOK);
+            slidingAttacks(self.queens & sourceMask, SlidingAttacks.BISHOP, QUEEN);
+            slidingAttacks(self.bishops & sourceMask, SlidingAttacks.BISHOP, BISHOP);
+            singleAttacks(self.knights & sourceMask, KNIGHT_ATTACKS, KNIGHT);
+            kingMoves(self.kings & sourceMask);
+            pawnAttacks(self.pawns & sourceMask);
+
+            if (quietMoves || pushPromotions) {
+                pawnMoves(self.pawns & sourceMask);
+            }
+
+            if (quietMoves && (self.kings & sourceMask) != 0L) {
+                castleMoves();
+            }
+
+            return result;
+        }
+
+        private void castleMoves() {
             if (turn == Color.WHITE && !isInCheck(Color.WHITE, Square.E1.getOccupiedBitMask(), black, occupancy)) {
                 if (self.queenSideCastle
                         && (WHITE_QUEEN_SIDE_CASTLE_OCCUPANCY & occupancy) == 0L
@@ -523,13 +1068,14 @@ public class Bitboard {
         }
 
         private void makeCastleMove(final Square kingSource, final Square kingTarget) {
+            if ((kingTarget.getOccupiedBitMask() & targetFilter) == 0L) {
+                return;
+            }
+
             makeBbMove(kingSource.getOccupiedBitMask(), kingTarget.getOccupiedBitMask(), KING, true, false, NO_PIECE, NO_SQUARE);
         }
 
-        private void pawnMoves(
-                final long pawns,
-                final long fullOccupancy
-        ) {
+        private void pawnMoves(final long pawns) {
             long remainingPawns = pawns;
 
             while (remainingPawns != 0L) {
@@ -549,11 +1095,19 @@ public class Bitboard {
                     promoteRank = RANK_ONE_SQUARES;
                 }
 
-                if ((singleMoveTarget & fullOccupancy) == 0L) {
+                final long allowedTargets = allowedTargets(source);
+
+                if ((singleMoveTarget & occupancy) == 0L) {
                     if ((singleMoveTarget & promoteRank) == 0L) {
                         //no promotion moves
 
-                        makeBbMove(source, singleMoveTarget, PAWN, false, false, NO_PIECE, NO_SQUARE);
+                        if (!quietMoves) {
+                            continue;
+                        }
+
+                        if ((singleMoveTarget & allowedTargets & targetFilter) != 0L) {
+                            makeBbMove(source, singleMoveTarget, PAWN, false, false, NO_PIECE, NO_SQUARE);
+                        }
 
                         final long doubleMoveTarget;
                         final long doubleMoveSourceRank;
@@ -566,12 +1120,12 @@ public class Bitboard {
                             doubleMoveSourceRank = RANK_SEVEN_SQUARES;
                         }
 
-                        if ((source & doubleMoveSourceRank) != 0L && (doubleMoveTarget & fullOccupancy) == 0L) {
+                        if ((source & doubleMoveSourceRank) != 0L && (doubleMoveTarget & occupancy) == 0L && (doubleMoveTarget & allowedTargets & targetFilter) != 0L) {
                             //is in starting rank and free double move target square
 
                             makeBbMove(source, doubleMoveTarget, PAWN, false, false, NO_PIECE, singleMoveTarget);
                         }
-                    } else {
+                    } else if (pushPromotions && (singleMoveTarget & allowedTargets & targetFilter) != 0L) {
                         pawnPromotions(source, singleMoveTarget);
                     }
                 }
@@ -596,11 +1150,7 @@ public class Bitboard {
             makeBbMove(source, target, PAWN, false, false, promotionPiece, 0L);
         }
 
-        private void pawnAttacks(
-                final long pawns,
-                final long selfOccupancy,
-                final long opponentOccupancy
-        ) {
+        private void pawnAttacks(final long pawns) {
             long remainingPawns = pawns;
 
             final long[] pawnAttacks = turn == Color.WHITE ? WHITE_PAWN_ATTACKS : BLACK_PAWN_ATTACKS;
@@ -609,15 +1159,31 @@ public class Bitboard {
                 final long source = Long.highestOneBit(remainingPawns);
                 remainingPawns &= ~source;
 
-                final long attacks = pawnAttacks[Long.numberOfTrailingZeros(source)] & (opponentOccupancy | enPassant) & ~selfOccupancy;
+                final long sourceAttacks = pawnAttacks[Long.numberOfTrailingZeros(source)];
+
+                long attacks = sourceAttacks & opponentOccupancy & targetMask & allowedTargets(source);
+
+                if (attackMoves && (sourceAttacks & enPassant & targetFilter) != 0L && isLegalEnPassant(source)) {
+                    attacks |= enPassant;
+                }
 
                 generatePawnAttacks(source, attacks);
             }
         }
 
+        private void kingMoves(final long kings) {
+            long remainingKings = kings;
+
+            while (remainingKings != 0L) {
+                final long source = Long.highestOneBit(remainingKings);
+                remainingKings &= ~source;
+
+                generateAttacks(source, kingTargets(source, targetMask), KING);
+            }
+        }
+
         private void singleAttacks(
                 final long pieces,
-                final long selfOccupancy,
                 final long[] attacksArray,
                 final int piece
         ) {
@@ -627,7 +1193,7 @@ public class Bitboard {
                 final long source = Long.highestOneBit(remainingPieces);
                 remainingPieces &= ~source;
 
-                final long attacks = attacksArray[Long.numberOfTrailingZeros(source)] & ~selfOccupancy;
+                final long attacks = attacksArray[Long.numberOfTrailingZeros(source)] & targetMask & allowedTargets(source);
 
                 generateAttacks(source, attacks, piece);
             }
@@ -635,9 +1201,7 @@ public class Bitboard {
 
         private void slidingAttacks(
                 final long pieces,
-                final long fullOccupancy,
-                final long selfOccupancy,
-                final MagicBitboard bitboard,
+                final SlidingAttackTable bitboard,
                 final int piece
         ) {
             long remainingPieces = pieces;
@@ -646,7 +1210,7 @@ public class Bitboard {
                 final long source = Long.highestOneBit(remainingPieces);
                 remainingPieces &= ~source;
 
-                final long attacks = bitboard.attacks(fullOccupancy, Long.numberOfTrailingZeros(source)) & ~selfOccupancy;
+                final long attacks = bitboard.attacks(occupancy, Long.numberOfTrailingZeros(source)) & targetMask & allowedTargets(source);
 
                 generateAttacks(source, attacks, piece);
             }
@@ -698,15 +1262,12 @@ public class Bitboard {
                 attackSquareIndex = turn == Color.WHITE ? targetSquareIndex - 8 : targetSquareIndex + 8;
                 bits |= EN_PASSANT_ATTACK_MASK;
             } else {
-                attackSquareIndex = targetSquareIndex;
-            }
-
-            final int pieceAttacked = turn == Color.WHITE ? black.getPieceConst(attackSquareIndex) : white.getPieceConst(attackSquareIndex);
-
-            if (onlyAttackMoves && pieceAttacked == 0) {
-                return;
+                attackSquareIndex = targetSquareIndex;
             }
 
+            // the target square is never occupied by the active player
+            final int pieceAttacked = mailbox[attackSquareIndex] & MAILBOX_PIECE_MASK;
+
             bits |= (long) pieceMoved << PIECE_MOVED_SHIFT;
             bits |= (long) pieceAttacked << PIECE_ATTACKED_SHIFT;
 
@@ -767,14 +1328,16 @@ public class Bitboard {
 
             final int turnConst = turn == Color.WHITE ? WHITE : BLACK;
 
-            final int gameStage = (white.queens | black.queens) == 0L ? 1 : 0;
+            final int[][] pieceSquareValues = PIECE_SQUARE_VALUES[turnConst][pieceMoved];
 
-            final int squareDiff = PIECE_SQUARE_VALUES[turnConst][pieceMoved][gameStage][targetSquareIndex]
-                    - PIECE_SQUARE_VALUES[turnConst][pieceMoved][gameStage][sourceSquareIndex];
+            final int squareDiff = taper(
+                    pieceSquareValues[0][targetSquareIndex] - pieceSquareValues[0][sourceSquareIndex],
+                    pieceSquareValues[1][targetSquareIndex] - pieceSquareValues[1][sourceSquareIndex]
+            );
 
-            final int mvvLva = mvvLva(pieceMoved, pieceAttacked);
+            final int mvvLva = mvvLva(pieceMoved, pieceAttacked, piecePromote);
 
-            result.add(new BBMove(bits, mvvLva, squareDiff));
+            result.add(bits, mvvLva, squareDiff);
         }
     }
 
@@ -793,55 +1356,21 @@ public class Bitboard {
     }
 
     private ColoredPiece getPiece(final long square) {
-        if ((white.kings & square) != 0L) {
-            return ColoredPiece.WHITE_KING;
-        }
-
-        if ((white.queens & square) != 0L) {
-            return ColoredPiece.WHITE_QUEEN;
-        }
-
-        if ((white.rooks & square) != 0L) {
-            return ColoredPiece.WHITE_ROOK;
-        }
-
-        if ((white.bishops & square) != 0L) {
-            return ColoredPiece.WHITE_BISHOP;
-        }
-
-        if ((white.knights & square) != 0L) {
-            return ColoredPiece.WHITE_KNIGHT;
-        }
-
-        if ((white.pawns & square) != 0L) {
-            return ColoredPiece.WHITE_PAWN;
-        }
-
-        if ((black.kings & square) != 0L) {
-            return ColoredPiece.BLACK_KING;
-        }
+        final int entry = mailbox[Long.numberOfTrailingZeros(square)];
 
-        if ((black.queens & square) != 0L) {
-            return ColoredPiece.BLACK_QUEEN;
-        }
-
-        if ((black.rooks & square) != 0L) {
-            return ColoredPiece.BLACK_ROOK;
-        }
-
-        if ((black.bishops & square) != 0L) {
-            return ColoredPiece.BLACK_BISHOP;
+        if (entry == NO_PIECE) {
+            return null;
         }
 
-        if ((black.knights & square) != 0L) {
-            return ColoredPiece.BLACK_KNIGHT;
-        }
+        return COLORED_PIECES[entry >> MAILBOX_COLOR_SHIFT][entry & MAILBOX_PIECE_MASK];
+    }
 
-        if ((black.pawns & square) != 0L) {
-            return ColoredPiece.BLACK_PAWN;
+    private static byte mailboxEntry(final int color, final int piece) {
+        if (piece == NO_PIECE) {
+            return NO_PIECE;
         }
 
-        return null;
+        return (byte) (piece | color << MAILBOX_COLOR_SHIFT);
     }
 
     private static boolean isOccupied(final long board, final long square) {
@@ -861,72 +1390,105 @@ public class Bitboard {
     public int computeScore(final Color color) {
         Objects.requireNonNull(color);
 
-        return color == Color.WHITE ? white.score() : black.score();
+        return color == Color.WHITE ? white.material : black.material;
     }
 
+    /**
+     * Piece square value interpolated between the middlegame and endgame tables by the game phase, which is derived
+     * from the remaining non pawn material
+     */
     public int pieceSquareValue(final Color color) {
-        final boolean lateGame = isLateGame();
+        final int sum = taper(pieceSquareValueMid, pieceSquareValueLate);
+
+        return color == Color.WHITE ? -sum : sum;
+    }
+
+    /**
+     * @return the value interpolated between its middlegame and endgame value by the game phase
+     */
+    private int taper(final int mid, final int late) {
+        final int midWeight = Math.min(phase, MAX_PHASE);
 
-        final int[] whiteKingTable = lateGame ? WHITE_KING_TABLE_LATE : WHITE_KING_TABLE_MID;
-        final int[] blackKingTable = lateGame ? BLACK_KING_TABLE_LATE : BLACK_KING_TABLE_MID;
+        return (mid * midWeight + late * (MAX_PHASE - midWeight)) / MAX_PHASE;
+    }
 
-        final int whiteSum = sum(white.pawns, WHITE_PAWN_TABLE)
-                + sum(white.knights, WHITE_KNIGHT_TABLE)
-                + sum(white.bishops, WHITE_BISHOP_TABLE)
-                + sum(white.rooks, WHITE_ROOK_TABLE)
-                + sum(white.queens, WHITE_QUEEN_TABLE)
-                + sum(white.kings, whiteKingTable);
+    /**
+     * Applies the change in material, piece square values and game phase of a move, {@code sign} is {@code 1} for
+     * make and {@code -1} for unmake
+     */
+    private void updateScores(final long bits, final int color, final int sign) {
+        final int opponentColor = color == WHITE ? BLACK : WHITE;
 
-        final int blackSum = sum(black.pawns, BLACK_PAWN_TABLE)
-                + sum(black.knights, BLACK_KNIGHT_TABLE)
-                + sum(black.bishops, BLACK_BISHOP_TABLE)
-                + sum(black.rooks, BLACK_ROOK_TABLE)
-                + sum(black.queens, BLACK_QUEEN_TABLE)
-                + sum(black.kings, blackKingTable);
+        final int sourceSquareIndex = (int) ((bits & SOURCE_SQUARE_INDEX_MASK) >> SOURCE_SQUARE_INDEX_SHIFT);
+        final int targetSquareIndex = (int) ((bits & TARGET_SQUARE_INDEX_MASK) >> TARGET_SQUARE_INDEX_SHIFT);
 
-        final int sum = whiteSum + blackSum;
+        final int pieceMoved = (int) ((bits & PIECE_MOVED_MASK) >> PIECE_MOVED_SHIFT);
+        final int pieceAttacked = (int) ((bits & PIECE_ATTACKED_MASK) >> PIECE_ATTACKED_SHIFT);
+        final int promotion = (int) ((bits & PROMOTION_PIECE_MASK) >> PROMOTION_PIECE_SHIFT);
 
-        return color == Color.WHITE ? -sum : sum;
-    }
+        final int[][][] self = PIECE_SQUARE_VALUES[color];
 
-    private boolean isLateGame() {
-        final boolean whiteHasQueen = white.queens != 0L; // a
-        final boolean blackHasQueen = black.queens != 0L; // b
+        final int piecePlaced = promotion == NO_PIECE ? pieceMoved : promotion;
 
-        final boolean whiteHasOneOrFewerMinorPieces = Long.bitCount(white.knights | white.bishops) <= 1;
-        final boolean blackHasOneOrFewerMinorPieces = Long.bitCount(black.knights | black.bishops) <= 1;
+        int mid = self[piecePlaced][0][targetSquareIndex] - self[pieceMoved][0][sourceSquareIndex];
+        int late = self[piecePlaced][1][targetSquareIndex] - self[pieceMoved][1][sourceSquareIndex];
 
-        final boolean whiteHasQueenAndOneOrFewerMinorPieces = whiteHasQueen && whiteHasOneOrFewerMinorPieces; // c
-        final boolean blackHasQueenAndOneOrFewerMinorPieces = blackHasQueen && blackHasOneOrFewerMinorPieces; // d
+        if (promotion != NO_PIECE) {
+            (color == WHITE ? white : black).material += sign * (pieceValue(promotion) - PAWN_VALUE);
+            phase += sign * PHASE_WEIGHTS[promotion];
+        }
 
-        return (!whiteHasQueen && !blackHasQueen)
-                || (whiteHasQueenAndOneOrFewerMinorPieces && !blackHasQueen)
-                || (blackHasQueenAndOneOrFewerMinorPieces && !whiteHasQueen)
-                || (whiteHasOneOrFewerMinorPieces && blackHasOneOrFewerMinorPieces);
-    }
+        if ((bits & CASTLE_MOVE_MASK) != 0L) {
+            final int rookSourceIndex;
+            final int rookTargetIndex;
 
-    private static int sum(final long board, final int[] valueTable) {
-        long occupancy = board;
+            if (targetSquareIndex == C1 || targetSquareIndex == C8) {
+                rookSourceIndex = targetSquareIndex - 2;
+                rookTargetIndex = targetSquareIndex + 1;
+            } else {
+                rookSourceIndex = targetSquareIndex + 1;
+                rookTargetIndex = targetSquareIndex - 1;
+            }
 
-        int sum = 0;
+            mid += self[ROOK][0][rookTargetIndex] - self[ROOK][0][rookSourceIndex];
+            late += self[ROOK][1][rookTargetIndex] - self[ROOK][1][rookSourceIndex];
+        }
 
-        while (occupancy != 0L) {
-            final long current = Long.highestOneBit(occupancy);
-            occupancy &= ~current;
-            sum += valueTable[Long.numberOfTrailingZeros(current)];
+        if (pieceAttacked != NO_PIECE) {
+            final int attackSquareIndex;
+
+            if ((bits & EN_PASSANT_ATTACK_MASK) != 0L) {
+                attackSquareIndex = color == WHITE ? targetSquareIndex - 8 : targetSquareIndex + 8;
+            } else {
+                attackSquareIndex = targetSquareIndex;
+            }
+
+            mid -= PIECE_SQUARE_VALUES[opponentColor][pieceAttacked][0][attackSquareIndex];
+            late -= PIECE_SQUARE_VALUES[opponentColor][pieceAttacked][1][attackSquareIndex];
+
+            (opponentColor == WHITE ? white : black).material -= sign * pieceValue(pieceAttacked);
+            phase -= sign * PHASE_WEIGHTS[pieceAttacked];
         }
 
-        return sum;
+        pieceSquareValueMid += sign * mid;
+        pieceSquareValueLate += sign * late;
     }
 
-    private static int mvvLva(final int source, final int target) {
-        if (target == NO_PIECE || target == KING) {
+    /**
+     * @return the value of the captured piece plus the material gained by the promotion, less the value of the moving
+     * piece to break ties, or {@code 0} for moves that gain no material
+     */
+    private static int mvvLva(final int source, final int target, final int promotion) {
+        final int captured = target == NO_PIECE || target == KING ? 0 : pieceValue(target);
+        final int promoted = promotion == NO_PIECE ? 0 : pieceValue(promotion) - PAWN_VALUE;
+
+        if (captured + promoted == 0) {
             return 0;
         }
 
         final int sourceValue = source == KING ? QUEEN_VALUE + 1 : pieceValue(source);
 
-        return (pieceValue(target) << 8) - sourceValue;
+        return ((captured + promoted) << 8) - sourceValue;
     }
 
     private static long zobristHashForOccupancy(final long board, final ColoredPiece coloredPiece) {
@@ -946,7 +1508,22 @@ public class Bitboard {
         return hash;
     }
 
+    /**
+     * @return the zobrist hash of this position, maintained incrementally by {@link #make(long)} and {@link #unmake(long)}
+     */
     public long zobristHash() {
+        if (VERIFY_ZOBRIST_HASH) {
+            final long expected = computeZobristHash();
+
+            if (expected != zobristHash) {
+                throw new IllegalStateException("Incremental zobrist hash " + Long.toHexString(zobristHash) + " does not match recomputed hash " + Long.toHexString(expected) + " for " + fen());
+            }
+        }
+
+        return zobristHash;
+    }
+
+    long computeZobristHash() {
         long hash = zobristHashForOccupancy(white.kings, ColoredPiece.WHITE_KING)
                 ^ zobristHashForOccupancy(white.queens, ColoredPiece.WHITE_QUEEN)
                 ^ zobristHashForOccupancy(white.rooks, ColoredPiece.WHITE_ROOK)
@@ -984,6 +1561,80 @@ public class Bitboard {
         return hash;
     }
 
+    /**
+     * The hash difference caused by a move, toggles the same keys in {@link #make(long)} and {@link #unmake(long)}
+     */
+    private static long zobristHashDelta(final long bits, final int color) {
+        final int opponentColor = color == WHITE ? BLACK : WHITE;
+
+        final int sourceSquareIndex = (int) ((bits & SOURCE_SQUARE_INDEX_MASK) >> SOURCE_SQUARE_INDEX_SHIFT);
+        final int targetSquareIndex = (int) ((bits & TARGET_SQUARE_INDEX_MASK) >> TARGET_SQUARE_INDEX_SHIFT);
+        final int pieceMoved = (int) ((bits & PIECE_MOVED_MASK) >> PIECE_MOVED_SHIFT);
+        final int pieceAttacked = (int) ((bits & PIECE_ATTACKED_MASK) >> PIECE_ATTACKED_SHIFT);
+        final int promote = (int) ((bits & PROMOTION_PIECE_MASK) >> PROMOTION_PIECE_SHIFT);
+
+        long delta = ZobristHashing.getBlacksTurnHash();
+
+        delta ^= ZobristHashing.hashPieceSquare(COLORED_PIECES[color][pieceMoved], sourceSquareIndex);
+        delta ^= ZobristHashing.hashPieceSquare(COLORED_PIECES[color][promote == NO_PIECE ? pieceMoved : promote], targetSquareIndex);
+
+        if ((bits & EN_PASSANT_ATTACK_MASK) != 0L) {
+            final int attackSquareIndex = color == WHITE ? targetSquareIndex - 8 : targetSquareIndex + 8;
+            delta ^= ZobristHashing.hashPieceSquare(COLORED_PIECES[opponentColor][pieceAttacked], attackSquareIndex);
+        } else if (pieceAttacked != NO_PIECE) {
+            delta ^= ZobristHashing.hashPieceSquare(COLORED_PIECES[opponentColor][pieceAttacked], targetSquareIndex);
+        }
+
+        if ((bits & CASTLE_MOVE_MASK) != 0L) {
+            final ColoredPiece rook = COLORED_PIECES[color][ROOK];
+
+            switch (targetSquareIndex) {
+                case C1:
+                    delta ^= ZobristHashing.hashPieceSquare(rook, A1) ^ ZobristHashing.hashPieceSquare(rook, D1);
+                    break;
+                case G1:
+                    delta ^= ZobristHashing.hashPieceSquare(rook, H1) ^ ZobristHashing.hashPieceSquare(rook, F1);
+                    break;
+                case C8:
+                    delta ^= ZobristHashing.hashPieceSquare(rook, A8) ^ ZobristHashing.hashPieceSquare(rook, D8);
+                    break;
+                case G8:
+                    delta ^= ZobristHashing.hashPieceSquare(rook, H8) ^ ZobristHashing.hashPieceSquare(rook, F8);
+                    break;
+            }
+        }
+
+        if ((bits & SELF_LOST_KING_SIDE_CASTLE_MASK) != 0L) {
+            delta ^= color == WHITE ? ZobristHashing.whiteKingCastleHash() : ZobristHashing.blackKingCastleHash();
+        }
+
+        if ((bits & SELF_LOST_QUEEN_SIDE_CASTLE_MASK) != 0L) {
+            delta ^= color == WHITE ? ZobristHashing.whiteQueenCastleHash() : ZobristHashing.blackQueenCastleHash();
+        }
+
+        if ((bits & OPPONENT_LOST_KING_SIDE_CASTLE_MASK) != 0L) {
+            delta ^= color == WHITE ? ZobristHashing.blackKingCastleHash() : ZobristHashing.whiteKingCastleHash();
+        }
+
+        if ((bits & OPPONENT_LOST_QUEEN_SIDE_CASTLE_MASK) != 0L) {
+            delta ^= color == WHITE ? ZobristHashing.blackQueenCastleHash() : ZobristHashing.whiteQueenCastleHash();
+        }
+
+        final int previousEnPassantSquareIndex = (int) ((bits & PREVIOUS_EN_PASSANT_SQUARE_INDEX_MASK) >> PREVIOUS_EN_PASSANT_SQUARE_INDEX_SHIFT);
+
+        if (previousEnPassantSquareIndex != 0) {
+            delta ^= ZobristHashing.hashEnPassant(previousEnPassantSquareIndex);
+        }
+
+        final int nextEnPassantSquareIndex = (int) ((bits & NEXT_EN_PASSANT_SQUARE_INDEX_MASK) >> NEXT_EN_PASSANT_SQUARE_INDEX_SHIFT);
+
+        if (nextEnPassantSquareIndex != 0) {
+            delta ^= ZobristHashing.hashEnPassant(nextEnPassantSquareIndex);
+        }
+
+        return delta;
+    }
+
     public boolean equalsZobrist(final Bitboard bitboard) {
         return white.equals(bitboard.white) && black.equals(bitboard.black) && enPassant == bitboard.enPassant;
     }
@@ -1006,6 +1657,36 @@ public class Bitboard {
         return isInCheck(turn);
     }
 
+    /**
+     * @return the pieces of the opponent giving check to the king of the active player
+     */
+    public long checkers() {
+        final PlayerBoard self = turn == Color.WHITE ? white : black;
+        final PlayerBoard opponent = turn == Color.WHITE ? black : white;
+
+        if (self.kings == 0L) {
+            return 0L;
+        }
+
+        final int index = Long.numberOfTrailingZeros(self.kings);
+        final long occupancy = white.occupancy() | black.occupancy();
+        final long[] pawnAttacks = turn == Color.WHITE ? WHITE_PAWN_ATTACKS : BLACK_PAWN_ATTACKS;
+
+        return (SlidingAttacks.ROOK.attacks(occupancy, index) & (opponent.rooks | opponent.queens))
+                | (SlidingAttacks.BISHOP.attacks(occupancy, index) & (opponent.bishops | opponent.queens))
+                | (KNIGHT_ATTACKS[index] & opponent.knights)
+                | (pawnAttacks[index] & opponent.pawns);
+    }
+
+    /**
+     * @return whether the player has any pieces besides pawns and the king, positions without are prone to zugzwang
+     */
+    public boolean hasNonPawnMaterial(final Color color) {
+        final PlayerBoard player = color == Color.WHITE ? white : black;
+
+        return (player.queens | player.rooks | player.bishops | player.knights) != 0L;
+    }
+
     public boolean isInCheck(final Color color) {
         Objects.requireNonNull(color);
 
@@ -1052,13 +1733,13 @@ public class Bitboard {
     private static boolean isInCheck(final Color color, final long square, final PlayerBoard opponent, final long occupancy) {
         final int index = Long.numberOfTrailingZeros(square);
 
-        final long rookAttacks = MagicBitboard.ROOK.attacks(occupancy, index);
+        final long rookAttacks = SlidingAttacks.ROOK.attacks(occupancy, index);
 
         if ((rookAttacks & (opponent.rooks | opponent.queens)) != 0L) {
             return true;
         }
 
-        final long bishopAttacks = MagicBitboard.BISHOP.attacks(occupancy, index);
+        final long bishopAttacks = SlidingAttacks.BISHOP.attacks(occupancy, index);
 
         if ((bishopAttacks & (opponent.bishops | opponent.queens)) != 0L) {
             return true;
@@ -1100,61 +1781,82 @@ public class Bitboard {
     //   |_____/   |_|  |_|  \_\_____|_| \_|\_____|  \_____|______|_| \_|______|_|  \_\/_/    \_\_|  |_____\____/|_| \_|
 
     public String fen() {
-        final StringBuilder stringBuilder = new StringBuilder("................................................................");
+        return appendFen(new StringBuilder(90)).toString();
+    }
 
-        for (final Square square : SQUARES) {
-            final ColoredPiece piece = getPiece(square);
+    /**
+     * Appends the FEN of this board to {@code stringBuilder}, so callers writing many FENs can reuse one builder
+     *
+     * @return {@code stringBuilder}
+     */
+    public StringBuilder appendFen(final StringBuilder stringBuilder) {
+        for (int rank = 7; rank >= 0; rank--) {
+            int emptySquares = 0;
 
-            if (piece == null) {
-                continue;
-            }
+            for (int file = 0; file < 8; file++) {
+                final int entry = mailbox[rank * 8 + file];
 
-            final int index = (8 - square.getRank().getIndex() - 1) * 8 + square.getFile().getIndex();
+                if (entry == NO_PIECE) {
+                    emptySquares++;
+                    continue;
+                }
 
-            stringBuilder.setCharAt(index, piece.getSan());
-        }
+                if (emptySquares > 0) {
+                    stringBuilder.append((char) ('0' + emptySquares));
+                    emptySquares = 0;
+                }
 
-        String result = stringBuilder.toString()
-                                     .replaceAll("(?<=\\G.{8})", "/")
-                                     .replaceFirst("/$", "");
+                stringBuilder.append(COLORED_PIECES[entry >> MAILBOX_COLOR_SHIFT][entry & MAILBOX_PIECE_MASK].getSan());
+            }
 
-        while (true) {
-            final Pattern compile = Pattern.compile("^[^.]*(\\.+).*$");
+            if (emptySquares > 0) {
+                stringBuilder.append((char) ('0' + emptySquares));
+            }
 
-            final Matcher matcher = compile.matcher(result);
+            if (rank > 0) {
+                stringBuilder.append('/');
+            }
+        }
 
-            if (!matcher.matches()) {
-                final StringBuilder castle = new StringBuilder();
+        stringBuilder.append(' ').append(turn.getFen()).append(' ');
 
-                if (white.kingSideCastle) {
-                    castle.append("K");
-                }
+        appendCastlingAvailability(stringBuilder).append(' ');
 
-                if (white.queenSideCastle) {
-                    castle.append("Q");
-                }
+        if (enPassant == 0L) {
+            stringBuilder.append('-');
+        } else {
+            final int enPassantIndex = Long.numberOfTrailingZeros(enPassant);
 
-                if (black.kingSideCastle) {
-                    castle.append("k");
-                }
+            stringBuilder.append((char) ('a' + (enPassantIndex & 7))).append((char) ('1' + (enPassantIndex >>> 3)));
+        }
 
-                if (black.queenSideCastle) {
-                    castle.append("q");
-                }
+        return stringBuilder.append(' ').append(halfmoveClock).append(' ').append(fullmoveClock);
+    }
 
-                if (castle.length() == 0) {
-                    castle.append("-");
-                }
+    private StringBuilder appendCastlingAvailability(final StringBuilder stringBuilder) {
+        final int length = stringBuilder.length();
 
-                final String enPassantString = enPassant == 0L ? "-" : SQUARES[Long.numberOfTrailingZeros(enPassant)].getFen();
+        if (white.kingSideCastle) {
+            stringBuilder.append('K');
+        }
 
-                return result + " " + turn.getFen() + " " + castle + " " + enPassantString + " " + halfmoveClock + " " + fullmoveClock;
-            }
+        if (white.queenSideCastle) {
+            stringBuilder.append('Q');
+        }
+
+        if (black.kingSideCastle) {
+            stringBuilder.append('k');
+        }
 
-            final String group = matcher.group(1);
+        if (black.queenSideCastle) {
+            stringBuilder.append('q');
+        }
 
-            result = result.replaceFirst(Pattern.quote(group), Integer.toString(group.length()));
+        if (stringBuilder.length() == length) {
+            stringBuilder.append('-');
         }
+
+        return stringBuilder;
     }
 
     @Override
@@ -1181,7 +1883,7 @@ public class Bitboard {
         addLine(resultJoiner, "turn", turn.toString());
         addLine(resultJoiner, "halfmove clock", Integer.toString(halfmoveClock));
         addLine(resultJoiner, "fullmove clock", Integer.toString(fullmoveClock));
-        addLine(resultJoiner, "castle", Fen.parse(fen()).getCastlingAvailability());
+        addLine(resultJoiner, "castle", appendCastlingAvailability(new StringBuilder()).toString());
         addLine(resultJoiner, "enPassant", enPassant == 0L ? "-" : SQUARES[Long.numberOfTrailingZeros(enPassant)].toString());
         resultJoiner.add("╚═══════════════════════════════════╝");
 
@@ -1212,10 +1914,15 @@ public class Bitboard {
     //   |_|  |_|\____/   \/   |______| |_____/ \____/_/    \____/|_| \_|_____/ \____/
 
     public void make(final BBMove bbMove) {
+        make(bbMove.bits);
+    }
+
+    public void make(final long bits) {
         final PlayerBoard self;
         final PlayerBoard opponent;
 
         final boolean whiteTurn = turn == Color.WHITE;
+        final int color = whiteTurn ? WHITE : BLACK;
 
         if (whiteTurn) {
             self = white;
@@ -1227,8 +1934,6 @@ public class Bitboard {
             fullmoveClock += 1;
         }
 
-        final long bits = bbMove.bits;
-
         if ((bits & SELF_LOST_KING_SIDE_CASTLE_MASK) != 0L) {
             self.kingSideCastle = false;
         }
@@ -1253,25 +1958,31 @@ public class Bitboard {
 
         if ((bits & CASTLE_MOVE_MASK) != 0L) {
             if (targetSquare == Square.C1.getOccupiedBitMask()) {
-                doCastle(self, Square.A1, Square.E1, Square.D1, Square.C1);
+                doCastle(self, color, Square.A1, Square.E1, Square.D1, Square.C1);
             } else if (targetSquare == Square.G1.getOccupiedBitMask()) {
-                doCastle(self, Square.H1, Square.E1, Square.F1, Square.G1);
+                doCastle(self, color, Square.H1, Square.E1, Square.F1, Square.G1);
             } else if (targetSquare == Square.C8.getOccupiedBitMask()) {
-                doCastle(self, Square.A8, Square.E8, Square.D8, Square.C8);
+                doCastle(self, color, Square.A8, Square.E8, Square.D8, Square.C8);
             } else if (targetSquare == Square.G8.getOccupiedBitMask()) {
-                doCastle(self, Square.H8, Square.E8, Square.F8, Square.G8);
+                doCastle(self, color, Square.H8, Square.E8, Square.F8, Square.G8);
             }
         } else if ((bits & EN_PASSANT_ATTACK_MASK) != 0L) {
             self.pawns &= ~sourceSquare;
             self.pawns |= targetSquare;
+            self.occupancy ^= sourceSquare | targetSquare;
 
-            if (whiteTurn) {
-                opponent.unsetAll(targetSquare >> 8);
-            } else {
-                opponent.unsetAll(targetSquare << 8);
-            }
+            final int epAttackTargetIndex = whiteTurn ? targetSquareIndex - 8 : targetSquareIndex + 8;
+
+            opponent.unsetAll(1L << epAttackTargetIndex);
+
+            mailbox[sourceSquareIndex] = NO_PIECE;
+            mailbox[targetSquareIndex] = mailboxEntry(color, PAWN);
+            mailbox[epAttackTargetIndex] = NO_PIECE;
         } else {
-            switch (((int) ((bits & PIECE_MOVED_MASK) >> PIECE_MOVED_SHIFT))) {
+            final int pieceMoved = (int) ((bits & PIECE_MOVED_MASK) >> PIECE_MOVED_SHIFT);
+            final int promote = ((int) ((bits & PROMOTION_PIECE_MASK) >> PROMOTION_PIECE_SHIFT));
+
+            switch (pieceMoved) {
                 case KING:
                     self.kings = (self.kings & ~sourceSquare) | targetSquare;
                     break;
@@ -1288,8 +1999,6 @@ public class Bitboard {
                     self.knights = (self.knights & ~sourceSquare) | targetSquare;
                     break;
                 case PAWN:
-                    final int promote = ((int) ((bits & PROMOTION_PIECE_MASK) >> PROMOTION_PIECE_SHIFT));
-
                     if (promote == NO_PIECE) {
                         self.pawns = (self.pawns & ~sourceSquare) | targetSquare;
                     } else {
@@ -1314,6 +2023,10 @@ public class Bitboard {
             }
 
             opponent.unsetAll(targetSquare);
+            self.occupancy ^= sourceSquare | targetSquare;
+
+            mailbox[sourceSquareIndex] = NO_PIECE;
+            mailbox[targetSquareIndex] = mailboxEntry(color, promote == NO_PIECE ? pieceMoved : promote);
         }
 
         final long enPassantSquareIndex = (bits & NEXT_EN_PASSANT_SQUARE_INDEX_MASK) >> NEXT_EN_PASSANT_SQUARE_INDEX_SHIFT;
@@ -1330,13 +2043,19 @@ public class Bitboard {
             halfmoveClock = 0;
         }
 
+        zobristHash ^= zobristHashDelta(bits, color);
+
+        updateScores(bits, color, 1);
+
         turn = turn.opposite();
     }
 
     public void unmake(final BBMove bbMove) {
-        turn = turn.opposite();
+        unmake(bbMove.bits);
+    }
 
-        final long bits = bbMove.bits;
+    public void unmake(final long bits) {
+        turn = turn.opposite();
 
         halfmoveClock = ((int) ((bits & PREVIOUS_HALFMOVE_MASK) >> PREVIOUS_HALFMOVE_SHIFT));
 
@@ -1352,6 +2071,9 @@ public class Bitboard {
         final PlayerBoard opponent;
 
         final boolean whiteTurn = turn == Color.WHITE;
+        final int color = whiteTurn ? WHITE : BLACK;
+        final int opponentColor = whiteTurn ? BLACK : WHITE;
+
         if (whiteTurn) {
             self = white;
             opponent = black;
@@ -1362,6 +2084,10 @@ public class Bitboard {
             fullmoveClock -= 1;
         }
 
+        zobristHash ^= zobristHashDelta(bits, color);
+
+        updateScores(bits, color, -1);
+
         if ((bits & SELF_LOST_KING_SIDE_CASTLE_MASK) != 0L) {
             self.kingSideCastle = true;
         }
@@ -1389,25 +2115,27 @@ public class Bitboard {
 
         if ((bits & CASTLE_MOVE_MASK) != 0L) {
             if (targetSquare == Square.C1.getOccupiedBitMask()) {
-                undoCastle(self, Square.A1, Square.E1, Square.D1, Square.C1);
+                undoCastle(self, color, Square.A1, Square.E1, Square.D1, Square.C1);
             } else if (targetSquare == Square.G1.getOccupiedBitMask()) {
-                undoCastle(self, Square.H1, Square.E1, Square.F1, Square.G1);
+                undoCastle(self, color, Square.H1, Square.E1, Square.F1, Square.G1);
             } else if (targetSquare == Square.C8.getOccupiedBitMask()) {
-                undoCastle(self, Square.A8, Square.E8, Square.D8, Square.C8);
+                undoCastle(self, color, Square.A8, Square.E8, Square.D8, Square.C8);
             } else if (targetSquare == Square.G8.getOccupiedBitMask()) {
-                undoCastle(self, Square.H8, Square.E8, Square.F8, Square.G8);
+                undoCastle(self, color, Square.H8, Square.E8, Square.F8, Square.G8);
             }
         } else if ((bits & EN_PASSANT_ATTACK_MASK) != 0L) {
             self.pawns |= sourceSquare;
             self.pawns &= ~targetSquare;
+            self.occupancy ^= sourceSquare | targetSquare;
 
-            final long epAttackTarget;
+            final int epAttackTargetIndex = whiteTurn ? targetSquareIndex - 8 : targetSquareIndex + 8;
+            final long epAttackTarget = 1L << epAttackTargetIndex;
 
-            if (whiteTurn) {
-                epAttackTarget = targetSquare >> 8;
-            } else {
-                epAttackTarget = targetSquare << 8;
-            }
+            opponent.occupancy |= epAttackTarget;
+
+            mailbox[sourceSquareIndex] = mailboxEntry(color, PAWN);
+            mailbox[targetSquareIndex] = NO_PIECE;
+            mailbox[epAttackTargetIndex] = mailboxEntry(opponentColor, pieceAttacked);
 
             switch (pieceAttacked) {
                 case KING:
@@ -1473,11 +2201,67 @@ public class Bitboard {
             }
 
             self.unsetAll(targetSquare);
+            self.occupancy |= sourceSquare;
+
+            if (pieceAttacked != NO_PIECE) {
+                opponent.occupancy |= targetSquare;
+            }
+
+            mailbox[sourceSquareIndex] = mailboxEntry(color, pieceMoved);
+            mailbox[targetSquareIndex] = mailboxEntry(opponentColor, pieceAttacked);
+        }
+    }
+
+    /**
+     * Passes the turn to the opponent without moving a piece, for null move pruning. Clears the en passant square and
+     * advances the clocks like a move that does not reset the halfmove clock.
+     *
+     * @return the state that {@link #unmakeNull(long)} restores
+     */
+    public long makeNull() {
+        final int enPassantSquareIndex = enPassant == 0L ? 0 : Long.numberOfTrailingZeros(enPassant);
+        final long state = ((long) halfmoveClock << NULL_MOVE_HALFMOVE_SHIFT) | enPassantSquareIndex;
+
+        if (enPassantSquareIndex != 0) {
+            zobristHash ^= ZobristHashing.hashEnPassant(enPassantSquareIndex);
+            enPassant = 0L;
+        }
+
+        if (turn == Color.BLACK) {
+            fullmoveClock += 1;
+        }
+
+        halfmoveClock += 1;
+        zobristHash ^= ZobristHashing.getBlacksTurnHash();
+        turn = turn.opposite();
+
+        return state;
+    }
+
+    /**
+     * @param state the state returned by the {@link #makeNull()} to undo
+     */
+    public void unmakeNull(final long state) {
+        turn = turn.opposite();
+        zobristHash ^= ZobristHashing.getBlacksTurnHash();
+
+        if (turn == Color.BLACK) {
+            fullmoveClock -= 1;
+        }
+
+        halfmoveClock = (int) (state >>> NULL_MOVE_HALFMOVE_SHIFT);
+
+        final int enPassantSquareIndex = (int) (state & NULL_MOVE_EN_PASSANT_MASK);
+
+        if (enPassantSquareIndex != 0) {
+            enPassant = 1L << enPassantSquareIndex;
+            zobristHash ^= ZobristHashing.hashEnPassant(enPassantSquareIndex);
         }
     }
 
-    private static void doCastle(
+    private void doCastle(
             final PlayerBoard self,
+            final int color,
             final Square rookSource,
             final Square kingSource,
             final Square rookTarget,
@@ -1488,10 +2272,19 @@ public class Bitboard {
 
         self.rooks |= rookTarget.getOccupiedBitMask();
         self.kings |= kingTarget.getOccupiedBitMask();
+
+        self.occupancy ^= castleSquares(rookSource, kingSource, rookTarget, kingTarget);
+
+        mailbox[rookSource.getBitboardIndex()] = NO_PIECE;
+        mailbox[kingSource.getBitboardIndex()] = NO_PIECE;
+
+        mailbox[rookTarget.getBitboardIndex()] = mailboxEntry(color, ROOK);
+        mailbox[kingTarget.getBitboardIndex()] = mailboxEntry(color, KING);
     }
 
-    private static void undoCastle(
+    private void undoCastle(
             final PlayerBoard self,
+            final int color,
             final Square rookSource,
             final Square kingSource,
             final Square rookTarget,
@@ -1502,6 +2295,21 @@ public class Bitboard {
 
         self.rooks &= ~rookTarget.getOccupiedBitMask();
         self.kings &= ~kingTarget.getOccupiedBitMask();
+
+        self.occupancy ^= castleSquares(rookSource, kingSource, rookTarget, kingTarget);
+
+        mailbox[rookSource.getBitboardIndex()] = mailboxEntry(color, ROOK);
+        mailbox[kingSource.getBitboardIndex()] = mailboxEntry(color, KING);
+
+        mailbox[rookTarget.getBitboardIndex()] = NO_PIECE;
+        mailbox[kingTarget.getBitboardIndex()] = NO_PIECE;
+    }
+
+    private static long castleSquares(final Square rookSource, final Square kingSource, final Square rookTarget, final Square kingTarget) {
+        return rookSource.getOccupiedBitMask()
+                | kingSource.getOccupiedBitMask()
+                | rookTarget.getOccupiedBitMask()
+                | kingTarget.getOccupiedBitMask();
     }
 
     private static int pieceValue(final int piece) {
@@ -1534,8 +2342,6 @@ public class Bitboard {
         private final int mvvLva;
         private final int moveOrderValue;
 
-//        private long zobristHashToggle;
-
         BBMove(final long bits, final int mvvLva, final int squareDiff) {
             this.bits = bits;
 
@@ -1543,12 +2349,12 @@ public class Bitboard {
             this.moveOrderValue = mvvLva + squareDiff;
         }
 
+        public long getBits() {
+            return bits;
+        }
+
         public UciMove asUciMove() {
-            return new UciMove(
-                    SQUARES[((int) ((bits & SOURCE_SQUARE_INDEX_MASK) >> SOURCE_SQUARE_INDEX_SHIFT))],
-                    SQUARES[((int) ((bits & TARGET_SQUARE_INDEX_MASK) >> TARGET_SQUARE_INDEX_SHIFT))],
-                    PIECES[(int) ((bits & PROMOTION_PIECE_MASK) >> PROMOTION_PIECE_SHIFT)]
-            );
+            return asUciMove(bits);
         }
 
         public int getMvvLvaSquarePieceDifferenceValue() {
@@ -1560,8 +2366,52 @@ public class Bitboard {
         }
 
         public boolean isAttack() {
+            return isAttack(bits);
+        }
+
+        public static UciMove asUciMove(final long bits) {
+            return new UciMove(
+                    SQUARES[((int) ((bits & SOURCE_SQUARE_INDEX_MASK) >> SOURCE_SQUARE_INDEX_SHIFT))],
+                    SQUARES[((int) ((bits & TARGET_SQUARE_INDEX_MASK) >> TARGET_SQUARE_INDEX_SHIFT))],
+                    PIECES[(int) ((bits & PROMOTION_PIECE_MASK) >> PROMOTION_PIECE_SHIFT)]
+            );
+        }
+
+        /**
+         * @return the source square index, target square index and promotion piece packed into 16 bits, which in
+         * contrast to the move itself does not depend on the position the move was generated in
+         */
+        public static int key(final long bits) {
+            final int source = (int) ((bits & SOURCE_SQUARE_INDEX_MASK) >> SOURCE_SQUARE_INDEX_SHIFT);
+            final int target = (int) ((bits & TARGET_SQUARE_INDEX_MASK) >> TARGET_SQUARE_INDEX_SHIFT);
+            final int promotion = (int) ((bits & PROMOTION_PIECE_MASK) >> PROMOTION_PIECE_SHIFT);
+
+            return source | target << 6 | promotion << 12;
+        }
+
+        public static boolean isAttack(final long bits) {
             return (bits & PIECE_ATTACKED_MASK) != 0L;
         }
+
+        public static boolean isPromotion(final long bits) {
+            return (bits & PROMOTION_PIECE_MASK) != 0L;
+        }
+
+        /**
+         * @return the piece the pawn is promoted to, {@link MoveConstants#NO_PIECE} if the move is not a promotion
+         */
+        public static int promotionPiece(final long bits) {
+            return (int) ((bits & PROMOTION_PIECE_MASK) >> PROMOTION_PIECE_SHIFT);
+        }
+
+        /**
+         * @return whether both moves have the same source square, target square and promotion piece
+         */
+        public static boolean isSameMove(final long bits1, final long bits2) {
+            final long mask = SOURCE_SQUARE_INDEX_MASK | TARGET_SQUARE_INDEX_MASK | PROMOTION_PIECE_MASK;
+
+            return (bits1 & mask) == (bits2 & mask);
+        }
     }
 
     // endregion
@@ -1575,6 +2425,11 @@ public class Bitboard {
         private long knights;
         private long pawns;
 
+        // cached union of all piece bitboards, maintained by make/unmake
+        private long occupancy;
+
+        private int material;
+
         private boolean queenSideCastle;
         private boolean kingSideCastle;
 
@@ -1589,12 +2444,20 @@ public class Bitboard {
             this.knights = other.knights;
             this.pawns = other.pawns;
 
+            this.occupancy = other.occupancy;
+
+            this.material = other.material;
+
             this.kingSideCastle = other.kingSideCastle;
             this.queenSideCastle = other.queenSideCastle;
         }
 
         long occupancy() {
-            return kings | queens | rooks | bishops | knights | pawns;
+            return occupancy;
+        }
+
+        void updateOccupancy() {
+            occupancy = kings | queens | rooks | bishops | knights | pawns;
         }
 
         @Override
@@ -1630,15 +2493,7 @@ public class Bitboard {
             bishops &= notL;
             knights &= notL;
             pawns &= notL;
-        }
-
-        int score() {
-            return Long.bitCount(kings) * KING_VALUE
-                    + Long.bitCount(queens) * QUEEN_VALUE
-                    + Long.bitCount(rooks) * ROOK_VALUE
-                    + Long.bitCount(bishops) * BISHOP_VALUE
-                    + Long.bitCount(knights) * KNIGHT_VALUE
-                    + Long.bitCount(pawns) * PAWN_VALUE;
+            occupancy &= notL;
         }
 
         Piece getPiece(final long square) {
@@ -6,6 +6,7 @@ import net.marvk.chess.core.Piece;
 import net.marvk.chess.core.Square;
 
 import java.util.*;
+import java.util.function.LongToIntFunction;
 
 @Log4j2
 public final class Configuration {
@@ -49,10 +50,17 @@ public final class Configuration {
     }
 
     public long[] generateAllAttacks() {
+        return generateAllAttacks(this::hash);
+    }
+
+    /**
+     * Generates the attacks of all possible configurations, indexed by {@code index} instead of the magic hash
+     */
+    public long[] generateAllAttacks(final LongToIntFunction index) {
         final long[] result = new long[numPossibleConfigurations];
 
-        for (final long configuration : possibleConfigurations()) {
-            result[hash(configuration)] = generateAttacksForConfiguration(configuration);
+        for (final long configuration : possibleConfigurations) {
+            result[index.applyAsInt(configuration)] = generateAttacksForConfiguration(configuration);
         }
 
         return result;
@@ -83,12 +91,11 @@ public final class Configuration {
         final long[] result = new long[numPossibleConfigurations];
 
         for (int i = 0; i < numPossibleConfigurations; i++) {
-            final String s = BitboardUtil.toPaddedBinaryString(i, numRelevantSquares);
-
             long current = 0L;
 
+            // the most significant bit of i selects the first relevant square
             for (int j = 0; j < numRelevantSquares; j++) {
-                if (s.charAt(j) == '1') {
+                if (((i >>> (numRelevantSquares - 1 - j)) & 1) != 0) {
                     current = BitboardUtil.setBit(current, relevantSquares.get(j));
                 }
             }
@@ -0,0 +1,150 @@
+package net.marvk.chess.core.bitboards;
+
+/**
+ * Reusable buffer for encoded moves, see {@link MoveConstants} for the bit layout. Intended to be owned by the caller
+ * and reused per ply so that move generation does not allocate.
+ */
+public final class MoveList {
+    /**
+     * No known legal position has more than 218 moves, pseudo legal move generation stays well below this.
+     */
+    public static final int MAX_MOVES = 256;
+
+    private final long[] moves;
+    private final int[] mvvLvaValues;
+    private final int[] moveOrderValues;
+
+    private int size;
+
+    public MoveList() {
+        this.moves = new long[MAX_MOVES];
+        this.mvvLvaValues = new int[MAX_MOVES];
+        this.moveOrderValues = new int[MAX_MOVES];
+    }
+
+    void add(final long move, final int mvvLva, final int squareDiff) {
+        moves[size] = move;
+        mvvLvaValues[size] = mvvLva;
+        moveOrderValues[size] = mvvLva + squareDiff;
+        size++;
+    }
+
+    void copy(final int from, final int to) {
+        moves[to] = moves[from];
+        mvvLvaValues[to] = mvvLvaValues[from];
+        moveOrderValues[to] = moveOrderValues[from];
+    }
+
+    void truncate(final int size) {
+        this.size = size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long get(final int index) {
+        return moves[index];
+    }
+
+    public int getMvvLvaValue(final int index) {
+        return mvvLvaValues[index];
+    }
+
+    public int getMvvLvaSquarePieceDifferenceValue(final int index) {
+        return moveOrderValues[index];
+    }
+
+    /**
+     * Adds to the move order value of the move at the index, for scores that depend on the search rather than the
+     * position, like the history of quiet moves
+     */
+    public void addMoveOrderValue(final int index, final int value) {
+        moveOrderValues[index] += value;
+    }
+
+    public boolean hasAnyAttackMoves() {
+        for (int i = 0; i < size; i++) {
+            if (Bitboard.BBMove.isAttack(moves[i])) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Stable descending insertion sort by MVV-LVA value
+     */
+    public void sortByMvvLva() {
+        sortDescending(mvvLvaValues);
+    }
+
+    /**
+     * Stable descending insertion sort by MVV-LVA plus piece square difference value
+     */
+    public void sortByMvvLvaSquarePieceDifference() {
+        sortDescending(moveOrderValues);
+    }
+
+    /**
+     * Moves the first move equal to {@code move} (same source, target and promotion) to the front of the list,
+     * keeping the relative order of the remaining moves.
+     *
+     * @return whether the move was found
+     */
+    public boolean moveToFront(final long move) {
+        for (int i = 0; i < size; i++) {
+            if (Bitboard.BBMove.isSameMove(moves[i], move)) {
+                rotateToFront(i);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void rotateToFront(final int index) {
+        final long move = moves[index];
+        final int mvvLva = mvvLvaValues[index];
+        final int moveOrder = moveOrderValues[index];
+
+        System.arraycopy(moves, 0, moves, 1, index);
+        System.arraycopy(mvvLvaValues, 0, mvvLvaValues, 1, index);
+        System.arraycopy(moveOrderValues, 0, moveOrderValues, 1, index);
+
+        moves[0] = move;
+        mvvLvaValues[0] = mvvLva;
+        moveOrderValues[0] = moveOrder;
+    }
+
+    private void sortDescending(final int[] keys) {
+        for (int i = 1; i < size; i++) {
+            final long move = moves[i];
+            final int mvvLva = mvvLvaValues[i];
+            final int moveOrder = moveOrderValues[i];
+            final int key = keys[i];
+
+            int j = i - 1;
+
+            while (j >= 0 && keys[j] < key) {
+                moves[j + 1] = moves[j];
+                mvvLvaValues[j + 1] = mvvLvaValues[j];
+                moveOrderValues[j + 1] = moveOrderValues[j];
+                j--;
+            }
+
+            moves[j + 1] = move;
+            mvvLvaValues[j + 1] = mvvLva;
+            moveOrderValues[j + 1] = moveOrder;
+        }
+    }
+}
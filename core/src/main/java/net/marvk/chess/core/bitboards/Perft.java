@@ -0,0 +1,380 @@
+package net.marvk.chess.core.bitboards;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static net.marvk.chess.core.bitboards.MoveConstants.*;
+
+/**
+ * Parallel move path enumeration for move generator regression checks. The root moves are split across a fork join
+ * pool, each on its own copy of the board.
+ *
+ * <p>{@link #count(Bitboard, int)} bulk counts the legal moves at the frontier nodes instead of making them and caches
+ * subtree node counts in a perft hash keyed by the Zobrist hash and the remaining depth. The hash is shared by all
+ * workers without locking, each entry stores the key xor the data so that a torn entry written by two workers at once
+ * is read as a miss. {@link #statistics(Bitboard, int)} makes every leaf move to collect the capture, en passant,
+ * castle, promotion, check and checkmate counters and therefore neither bulk counts nor uses the hash.</p>
+ */
+public final class Perft {
+    public static final int DEFAULT_HASH_MEGABYTES = 64;
+
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+    private static final long DEPTH_MASK = 0xffL;
+    private static final int NODES_SHIFT = 8;
+
+    private final int parallelism;
+    private final int hashMegabytes;
+
+    public Perft() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_HASH_MEGABYTES);
+    }
+
+    /**
+     * @param parallelism   the number of worker threads
+     * @param hashMegabytes the size of the perft hash, rounded down to a power of two number of entries, {@code 0}
+     *                      disables the hash
+     */
+    public Perft(final int parallelism, final int hashMegabytes) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive, was " + parallelism);
+        }
+
+        if (hashMegabytes < 0) {
+            throw new IllegalArgumentException("Hash size must not be negative, was " + hashMegabytes);
+        }
+
+        this.parallelism = parallelism;
+        this.hashMegabytes = hashMegabytes;
+    }
+
+    /**
+     * Counts the leaf nodes at the given depth, using bulk counting and the perft hash
+     */
+    public Result count(final Bitboard board, final int depth) {
+        return run(board, depth, false);
+    }
+
+    /**
+     * Counts the leaf nodes at the given depth and classifies every leaf move
+     */
+    public Result statistics(final Bitboard board, final int depth) {
+        return run(board, depth, true);
+    }
+
+    private Result run(final Bitboard board, final int depth, final boolean statistics) {
+        if (depth < 0 || depth > DEPTH_MASK) {
+            throw new IllegalArgumentException("Depth must be between 0 and " + DEPTH_MASK + ", was " + depth);
+        }
+
+        final long start = System.nanoTime();
+
+        if (depth == 0) {
+            return new Result(depth, 1L, System.nanoTime() - start, Collections.emptyMap(), statistics ? new Statistics() : null);
+        }
+
+        final Hash hash = statistics || hashMegabytes == 0 ? null : new Hash(hashMegabytes);
+        final MoveList rootMoves = board.generateLegalMoves(new MoveList());
+
+        final List<RootMoveTask> tasks = new ArrayList<>(rootMoves.size());
+
+        for (int i = 0; i < rootMoves.size(); i++) {
+            tasks.add(new RootMoveTask(board, rootMoves.get(i), depth, hash, statistics));
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            pool.submit(() -> RecursiveTask.invokeAll(tasks)).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        final Map<String, Long> divide = new LinkedHashMap<>();
+        final Statistics total = statistics ? new Statistics() : null;
+
+        long nodes = 0L;
+
+        for (final RootMoveTask task : tasks) {
+            final long taskNodes = task.join();
+
+            divide.put(Bitboard.BBMove.asUciMove(task.move).toString(), taskNodes);
+            nodes += taskNodes;
+
+            if (total != null) {
+                total.add(task.statistics);
+            }
+        }
+
+        return new Result(depth, nodes, System.nanoTime() - start, Collections.unmodifiableMap(divide), total);
+    }
+
+    private static final class RootMoveTask extends RecursiveTask<Long> {
+        private final Bitboard board;
+        private final long move;
+        private final int depth;
+        private final Hash hash;
+        private final Statistics statistics;
+        private final MoveList[] moveLists;
+
+        RootMoveTask(final Bitboard board, final long move, final int depth, final Hash hash, final boolean statistics) {
+            this.board = new Bitboard(board);
+            this.move = move;
+            this.depth = depth;
+            this.hash = hash;
+            this.statistics = statistics ? new Statistics() : null;
+            this.moveLists = new MoveList[depth];
+
+            for (int i = 0; i < moveLists.length; i++) {
+                moveLists[i] = new MoveList();
+            }
+        }
+
+        @Override
+        protected Long compute() {
+            board.make(move);
+
+            final long result;
+
+            if (statistics == null) {
+                result = count(depth - 1);
+            } else if (depth == 1) {
+                statistics.record(board, move);
+                result = 1L;
+            } else {
+                result = classify(depth - 1);
+            }
+
+            board.unmake(move);
+
+            return result;
+        }
+
+        private long count(final int depth) {
+            if (depth == 0) {
+                return 1L;
+            }
+
+            if (depth == 1) {
+                return board.generateLegalMoves(moveLists[depth]).size();
+            }
+
+            final long zobristHash = board.zobristHash();
+
+            if (hash != null) {
+                final long cached = hash.get(zobristHash, depth);
+
+                if (cached >= 0L) {
+                    return cached;
+                }
+            }
+
+            final MoveList moves = board.generateLegalMoves(moveLists[depth]);
+
+            long nodes = 0L;
+
+            for (int i = 0; i < moves.size(); i++) {
+                final long current = moves.get(i);
+
+                board.make(current);
+                nodes += count(depth - 1);
+                board.unmake(current);
+            }
+
+            if (hash != null) {
+                hash.put(zobristHash, depth, nodes);
+            }
+
+            return nodes;
+        }
+
+        private long classify(final int depth) {
+            final MoveList moves = board.generateLegalMoves(moveLists[depth]);
+
+            long nodes = 0L;
+
+            for (int i = 0; i < moves.size(); i++) {
+                final long current = moves.get(i);
+
+                board.make(current);
+
+                if (depth == 1) {
+                    statistics.record(board, current);
+                    nodes++;
+                } else {
+                    nodes += classify(depth - 1);
+                }
+
+                board.unmake(current);
+            }
+
+            return nodes;
+        }
+    }
+
+    /**
+     * Lockless perft hash, each entry is a pair of the key xor the data and the data. The data packs the node count and
+     * the remaining depth.
+     */
+    private static final class Hash {
+        private final long[] entries;
+        private final int mask;
+
+        Hash(final int megabytes) {
+            final long entryCount = Long.highestOneBit(Math.max(1L, (long) megabytes * 1024L * 1024L / ENTRY_BYTES));
+
+            this.entries = new long[(int) Math.min(entryCount, 1L << 29) * 2];
+            this.mask = entries.length / 2 - 1;
+        }
+
+        long get(final long zobristHash, final int depth) {
+            final int index = ((int) zobristHash & mask) * 2;
+            final long data = entries[index + 1];
+
+            if ((entries[index] ^ data) != zobristHash || (data & DEPTH_MASK) != depth) {
+                return -1L;
+            }
+
+            return data >>> NODES_SHIFT;
+        }
+
+        void put(final long zobristHash, final int depth, final long nodes) {
+            final int index = ((int) zobristHash & mask) * 2;
+            final long data = nodes << NODES_SHIFT | depth;
+
+            entries[index] = zobristHash ^ data;
+            entries[index + 1] = data;
+        }
+    }
+
+    @Getter
+    public static final class Result {
+        private final int depth;
+        private final long nodes;
+        private final long nanos;
+        /**
+         * Leaf node count per root move in UCI notation, in move generation order
+         */
+        private final Map<String, Long> divide;
+        /**
+         * The leaf move categories or {@code null} if the perft only counted nodes
+         */
+        private final Statistics statistics;
+
+        Result(final int depth, final long nodes, final long nanos, final Map<String, Long> divide, final Statistics statistics) {
+            this.depth = depth;
+            this.nodes = nodes;
+            this.nanos = nanos;
+            this.divide = divide;
+            this.statistics = statistics;
+        }
+
+        public long getNodesPerSecond() {
+            return nanos == 0L ? 0L : (long) (nodes * 1e9 / nanos);
+        }
+
+        @Override
+        public String toString() {
+            return "depth " + depth + " nodes " + nodes + " time " + nanos / 1_000_000L + " nps " + getNodesPerSecond()
+                    + (statistics == null ? "" : " " + statistics);
+        }
+    }
+
+    /**
+     * Categories of the leaf moves as in the commonly published perft results. A discovery check is a check in which
+     * the moved piece itself does not give check.
+     */
+    @Getter
+    public static final class Statistics {
+        private long captures;
+        private long enPassant;
+        private long castles;
+        private long promotions;
+        private long checks;
+        private long discoveryChecks;
+        private long doubleChecks;
+        private long checkmates;
+
+        void record(final Bitboard board, final long move) {
+            if ((move & PIECE_ATTACKED_MASK) != 0L) {
+                captures++;
+            }
+
+            if ((move & EN_PASSANT_ATTACK_MASK) != 0L) {
+                enPassant++;
+            }
+
+            if ((move & CASTLE_MOVE_MASK) != 0L) {
+                castles++;
+            }
+
+            if ((move & PROMOTION_PIECE_MASK) != 0L) {
+                promotions++;
+            }
+
+            final long checkers = board.checkers();
+
+            if (checkers == 0L) {
+                return;
+            }
+
+            checks++;
+
+            if ((checkers & 1L << movedPieceSquare(move)) == 0L) {
+                discoveryChecks++;
+            }
+
+            if (Long.bitCount(checkers) > 1) {
+                doubleChecks++;
+            }
+
+            if (!board.hasAnyLegalMove()) {
+                checkmates++;
+            }
+        }
+
+        /**
+         * @return the square the moved piece ended up on, the rook's square for castle moves
+         */
+        private static int movedPieceSquare(final long move) {
+            final int target = (int) ((move & TARGET_SQUARE_INDEX_MASK) >> TARGET_SQUARE_INDEX_SHIFT);
+
+            if ((move & CASTLE_MOVE_MASK) == 0L) {
+                return target;
+            }
+
+            final int source = (int) ((move & SOURCE_SQUARE_INDEX_MASK) >> SOURCE_SQUARE_INDEX_SHIFT);
+
+            return target > source ? target - 1 : target + 1;
+        }
+
+        void add(final Statistics other) {
+            captures += other.captures;
+            enPassant += other.enPassant;
+            castles += other.castles;
+            promotions += other.promotions;
+            checks += other.checks;
+            discoveryChecks += other.discoveryChecks;
+            doubleChecks += other.doubleChecks;
+            checkmates += other.checkmates;
+        }
+
+        @Override
+        public String toString() {
+            return "captures " + captures
+                    + " enpassant " + enPassant
+                    + " castles " + castles
+                    + " promotions " + promotions
+                    + " checks " + checks
+                    + " discoverychecks " + discoveryChecks
+                    + " doublechecks " + doubleChecks
+                    + " checkmates " + checkmates;
+        }
+    }
+}
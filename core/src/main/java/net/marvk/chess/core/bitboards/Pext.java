@@ -0,0 +1,35 @@
+package net.marvk.chess.core.bitboards;
+
+/**
+ * Parallel bit extraction. This is the portable implementation, the multi release jar replaces it with one based on
+ * {@code Long.compress} on Java 19 and newer, which the JIT compiles to {@code PEXT} on x86 with BMI2.
+ */
+final class Pext {
+    private Pext() {
+        throw new AssertionError("No instances of utility class " + Pext.class);
+    }
+
+    static boolean isIntrinsic() {
+        return false;
+    }
+
+    /**
+     * Gathers the bits of {@code value} selected by {@code mask} into the low bits of the result, preserving their order
+     */
+    static long compress(final long value, final long mask) {
+        long result = 0L;
+        long remaining = mask;
+
+        for (long bit = 1L; remaining != 0L; bit <<= 1) {
+            final long lowest = remaining & -remaining;
+
+            if ((value & lowest) != 0L) {
+                result |= bit;
+            }
+
+            remaining &= remaining - 1;
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package net.marvk.chess.core.bitboards;
+
+import net.marvk.chess.core.Square;
+
+import java.util.function.BiFunction;
+
+/**
+ * Attack table indexed by the occupancy bits under the relevance mask, extracted in order with {@link Pext#compress}.
+ * Only faster than {@link MagicBitboard} if {@link Pext#isIntrinsic() compress is intrinsified}.
+ */
+public final class PextAttackTable implements SlidingAttackTable {
+    private static final Square[] SQUARES = Square.values();
+
+    public static final PextAttackTable ROOK = new PextAttackTable(Configuration::rookConfiguration);
+    public static final PextAttackTable BISHOP = new PextAttackTable(Configuration::bishopConfiguration);
+
+    private final long[] masks;
+    private final int[] offsets;
+
+    // the attacks of all squares in one array, the attacks of a square start at its offset
+    private final long[] attacks;
+
+    private PextAttackTable(final BiFunction<Square, Long, Configuration> configurationGenerator) {
+        this.masks = new long[64];
+        this.offsets = new int[64];
+
+        final long[][] squareAttacks = new long[64][];
+
+        int offset = 0;
+
+        for (final Square square : SQUARES) {
+            final int index = square.getBitboardIndex();
+
+            // the magic is not used, so pass any value to skip the magic search
+            final Configuration configuration = configurationGenerator.apply(square, 0L);
+
+            final long mask = configuration.getMask();
+
+            this.masks[index] = mask;
+            this.offsets[index] = offset;
+
+            squareAttacks[index] = configuration.generateAllAttacks(occupancy -> (int) Pext.compress(occupancy, mask));
+
+            offset += squareAttacks[index].length;
+        }
+
+        this.attacks = new long[offset];
+
+        for (int i = 0; i < 64; i++) {
+            System.arraycopy(squareAttacks[i], 0, attacks, offsets[i], squareAttacks[i].length);
+        }
+    }
+
+    @Override
+    public long attacks(final long occupancy, final int squareIndex) {
+        return attacks[offsets[squareIndex] + (int) Pext.compress(occupancy, masks[squareIndex])];
+    }
+}
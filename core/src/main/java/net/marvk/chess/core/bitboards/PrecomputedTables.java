@@ -0,0 +1,190 @@
+package net.marvk.chess.core.bitboards;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Attack, magic and Zobrist tables generated at build time into {@value #RESOURCE} so they do not have to be rebuilt
+ * on every start. The tables are read with one bulk read on first use. If the resource is missing, corrupt or disabled
+ * with {@code -Dnet.marvk.chess.precomputedTables=false}, {@link #get(String)} returns {@code null} and the owners of
+ * the tables fall back to generating them.
+ *
+ * <p>Layout, big endian: magic, version, table count, then per table the name length, the ASCII name, the number of
+ * longs and the longs, followed by the CRC32 of everything before it.</p>
+ */
+@Log4j2
+public final class PrecomputedTables {
+    public static final String RESOURCE = "tables.bin";
+    public static final String ENABLED_PROPERTY = "net.marvk.chess.precomputedTables";
+
+    static final String ZOBRIST = "zobrist";
+    static final String ROOK_PARAMETERS = "rook.parameters";
+    static final String ROOK_ATTACKS = "rook.attacks";
+    static final String BISHOP_PARAMETERS = "bishop.parameters";
+    static final String BISHOP_ATTACKS = "bishop.attacks";
+    static final String STATIC_ATTACKS = "static.attacks";
+    static final String LINES = "lines";
+
+    private static final int MAGIC = 0x4d435442;
+    private static final int VERSION = 1;
+
+    private PrecomputedTables() {
+        throw new AssertionError("No instances of utility class " + PrecomputedTables.class);
+    }
+
+    /**
+     * @return the precomputed table or {@code null} if no precomputed tables are available. Each table can only be
+     * retrieved once, so the loader does not keep it alive.
+     */
+    static long[] get(final String name) {
+        return Loaded.TABLES.remove(name);
+    }
+
+    /**
+     * Generates all tables at runtime, never reading from the precomputed tables
+     */
+    static Map<String, long[]> generate() {
+        final Map<String, long[]> result = new LinkedHashMap<>();
+
+        result.put(ZOBRIST, ZobristHashing.generateHashes());
+
+        final MagicBitboard rook = MagicBitboard.generateRook();
+        result.put(ROOK_PARAMETERS, rook.getParameters());
+        result.put(ROOK_ATTACKS, rook.getAttacks());
+
+        final MagicBitboard bishop = MagicBitboard.generateBishop();
+        result.put(BISHOP_PARAMETERS, bishop.getParameters());
+        result.put(BISHOP_ATTACKS, bishop.getAttacks());
+
+        result.put(STATIC_ATTACKS, Bitboard.generateStaticAttacks());
+        // independent of the attack tables in use, which may have been loaded from a previous build's resource
+        result.put(LINES, Bitboard.generateLines(rook, bishop));
+
+        return result;
+    }
+
+    static void write(final Map<String, long[]> tables, final OutputStream outputStream) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(tables.size());
+
+        for (final Map.Entry<String, long[]> entry : tables.entrySet()) {
+            final byte[] name = entry.getKey().getBytes(StandardCharsets.US_ASCII);
+
+            out.writeShort(name.length);
+            out.write(name);
+            out.writeInt(entry.getValue().length);
+
+            for (final long l : entry.getValue()) {
+                out.writeLong(l);
+            }
+        }
+
+        out.flush();
+
+        final CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+
+        out.writeLong(crc.getValue());
+        out.flush();
+
+        bytes.writeTo(outputStream);
+    }
+
+    static Map<String, long[]> read(final InputStream inputStream) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(inputStream.readAllBytes());
+
+        if (buffer.remaining() < Long.BYTES) {
+            throw new IOException("Truncated table resource");
+        }
+
+        final int checksumPosition = buffer.limit() - Long.BYTES;
+
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(checksumPosition));
+
+        if (crc.getValue() != buffer.getLong(checksumPosition)) {
+            throw new IOException("Checksum mismatch");
+        }
+
+        buffer.limit(checksumPosition);
+
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a table resource");
+        }
+
+        final int version = buffer.getInt();
+
+        if (version != VERSION) {
+            throw new IOException("Unsupported table resource version " + version);
+        }
+
+        final int count = buffer.getInt();
+
+        final Map<String, long[]> result = new LinkedHashMap<>();
+
+        for (int i = 0; i < count; i++) {
+            final byte[] name = new byte[buffer.getShort()];
+            buffer.get(name);
+
+            final long[] table = new long[buffer.getInt()];
+
+            final LongBuffer longs = buffer.asLongBuffer();
+            longs.get(table);
+            buffer.position(buffer.position() + table.length * Long.BYTES);
+
+            result.put(new String(name, StandardCharsets.US_ASCII), table);
+        }
+
+        return result;
+    }
+
+    /**
+     * Build time entry point, writes the generated tables to the path given as the only argument
+     */
+    public static void main(final String[] args) throws IOException {
+        final Path path = Paths.get(args[0]);
+
+        Files.createDirectories(path.getParent());
+
+        try (final OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(path))) {
+            write(generate(), outputStream);
+        }
+    }
+
+    private static final class Loaded {
+        private static final Map<String, long[]> TABLES = Collections.synchronizedMap(load());
+
+        private static Map<String, long[]> load() {
+            if ("false".equals(System.getProperty(ENABLED_PROPERTY))) {
+                return new LinkedHashMap<>();
+            }
+
+            try (final InputStream inputStream = PrecomputedTables.class.getResourceAsStream(RESOURCE)) {
+                if (inputStream == null) {
+                    log.warn("Missing precomputed table resource " + RESOURCE + ", generating tables at runtime");
+                    return new LinkedHashMap<>();
+                }
+
+                return read(inputStream);
+            } catch (final IOException | RuntimeException e) {
+                log.warn("Failed to read precomputed table resource " + RESOURCE + ", generating tables at runtime", e);
+                return new LinkedHashMap<>();
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package net.marvk.chess.core.bitboards;
+
+/**
+ * Attack lookup for a sliding piece, see {@link SlidingAttacks} for the tables in use
+ */
+public interface SlidingAttackTable {
+    long attacks(final long occupancy, final int squareIndex);
+}
@@ -0,0 +1,51 @@
+package net.marvk.chess.core.bitboards;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.util.Locale;
+
+/**
+ * The sliding piece attack tables used by move generation, selected once at startup. Magic bitboards are the default,
+ * {@code -Dnet.marvk.chess.slidingAttacks=pext} selects the {@link PextAttackTable} if {@code Long.compress} is
+ * available, i.e. on Java 19 and newer.
+ */
+@Log4j2
+public final class SlidingAttacks {
+    public static final String BACKEND_PROPERTY = "net.marvk.chess.slidingAttacks";
+
+    public static final Backend BACKEND = selectBackend(System.getProperty(BACKEND_PROPERTY));
+
+    public static final SlidingAttackTable ROOK = BACKEND == Backend.PEXT ? PextAttackTable.ROOK : MagicBitboard.ROOK;
+    public static final SlidingAttackTable BISHOP = BACKEND == Backend.PEXT ? PextAttackTable.BISHOP : MagicBitboard.BISHOP;
+
+    private SlidingAttacks() {
+        throw new AssertionError("No instances of utility class " + SlidingAttacks.class);
+    }
+
+    static Backend selectBackend(final String property) {
+        if (property == null) {
+            return Backend.MAGIC;
+        }
+
+        final Backend backend;
+
+        try {
+            backend = Backend.valueOf(property.trim().toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            log.warn("Unknown sliding attack backend \"" + property + "\", using " + Backend.MAGIC);
+            return Backend.MAGIC;
+        }
+
+        if (backend == Backend.PEXT && !Pext.isIntrinsic()) {
+            log.warn("Sliding attack backend " + Backend.PEXT + " requires Java 19 or newer, using " + Backend.MAGIC);
+            return Backend.MAGIC;
+        }
+
+        return backend;
+    }
+
+    public enum Backend {
+        MAGIC,
+        PEXT
+    }
+}
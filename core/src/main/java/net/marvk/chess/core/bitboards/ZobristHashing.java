@@ -3,9 +3,7 @@ package net.marvk.chess.core.bitboards;
 import net.marvk.chess.core.ColoredPiece;
 import net.marvk.chess.core.Square;
 
-import java.util.HashSet;
 import java.util.Random;
-import java.util.Set;
 
 public final class ZobristHashing {
     private static final long[][] SQUARE_PIECE_HASHES;
@@ -17,45 +15,87 @@ public final class ZobristHashing {
 
     private static final long BLACKS_TURN_HASH;
 
+    // square piece hashes, en passant hashes, the four castle hashes and the blacks turn hash
+    private static final int HASH_COUNT = 64 * 12 + 64 + 4 + 1;
+
     static {
-        final Random random = new Random(350);
+        final long[] loaded = PrecomputedTables.get(PrecomputedTables.ZOBRIST);
+        final long[] hashes = loaded != null && loaded.length == HASH_COUNT ? loaded : generateHashes();
+
+        int index = 0;
 
         SQUARE_PIECE_HASHES = new long[64][12];
 
-        final Set<Long> hashes = new HashSet<>();
+        for (final long[] current : SQUARE_PIECE_HASHES) {
+            for (int i = 0; i < current.length; i++) {
+                current[i] = hashes[index++];
+            }
+        }
 
-        for (final Square square : Square.values()) {
-            final long[] current = SQUARE_PIECE_HASHES[square.getBitboardIndex()];
+        EN_PASSANT_HASHES = new long[64];
+
+        for (int i = 0; i < EN_PASSANT_HASHES.length; i++) {
+            EN_PASSANT_HASHES[i] = hashes[index++];
+        }
+
+        WHITE_KING_CASTLE_HASH = hashes[index++];
+        WHITE_QUEEN_CASTLE_HASH = hashes[index++];
+        BLACK_KING_CASTLE_HASH = hashes[index++];
+        BLACK_QUEEN_CASTLE_HASH = hashes[index++];
+
+        BLACKS_TURN_HASH = hashes[index];
+    }
+
+    /**
+     * Generates the distinct hashes in the layout read by the static initializer. The hashes are drawn in
+     * {@link Square} declaration order, which differs from the bitboard index order of the layout.
+     */
+    static long[] generateHashes() {
+        final Random random = new Random(350);
+
+        final long[] result = new long[HASH_COUNT];
+        final long[] drawn = new long[HASH_COUNT];
 
+        int count = 0;
+
+        for (final Square square : Square.values()) {
             for (final ColoredPiece value : ColoredPiece.values()) {
-                current[value.ordinal()] = findNewHash(random, hashes);
+                result[square.getBitboardIndex() * 12 + value.ordinal()] = findNewHash(random, drawn, count++);
             }
         }
 
-        EN_PASSANT_HASHES = new long[64];
-
-        for (final Square value : Square.values()) {
-            EN_PASSANT_HASHES[value.getBitboardIndex()] = findNewHash(random, hashes);
+        for (final Square square : Square.values()) {
+            result[64 * 12 + square.getBitboardIndex()] = findNewHash(random, drawn, count++);
         }
 
-        WHITE_KING_CASTLE_HASH = findNewHash(random, hashes);
-        WHITE_QUEEN_CASTLE_HASH = findNewHash(random, hashes);
-        BLACK_KING_CASTLE_HASH = findNewHash(random, hashes);
-        BLACK_QUEEN_CASTLE_HASH = findNewHash(random, hashes);
+        for (int i = 64 * 12 + 64; i < HASH_COUNT; i++) {
+            result[i] = findNewHash(random, drawn, count++);
+        }
 
-        BLACKS_TURN_HASH = findNewHash(random, hashes);
+        return result;
     }
 
-    private static long findNewHash(final Random random, final Set<Long> hashes) {
+    private static long findNewHash(final Random random, final long[] drawn, final int count) {
         while (true) {
             final long hash = random.nextLong();
 
-            if (hashes.add(hash)) {
+            if (!contains(drawn, count, hash)) {
+                drawn[count] = hash;
                 return hash;
             }
         }
     }
 
+    private static boolean contains(final long[] hashes, final int count, final long hash) {
+        for (int i = 0; i < count; i++) {
+            if (hashes[i] == hash) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     private ZobristHashing() {
         throw new AssertionError("No instances of utility class " + ZobristHashing.class);
     }
@@ -0,0 +1,19 @@
+package net.marvk.chess.core.bitboards;
+
+/**
+ * Parallel bit extraction based on {@link Long#compress(long, long)}, which the JIT compiles to {@code PEXT} on x86
+ * with BMI2
+ */
+final class Pext {
+    private Pext() {
+        throw new AssertionError("No instances of utility class " + Pext.class);
+    }
+
+    static boolean isIntrinsic() {
+        return true;
+    }
+
+    static long compress(final long value, final long mask) {
+        return Long.compress(value, mask);
+    }
+}
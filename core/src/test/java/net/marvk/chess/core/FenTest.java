@@ -34,4 +34,36 @@ class FenTest {
         assertThrows(IllegalArgumentException.class, () -> Fen.parse("rnbqkbnr/pp1ppppp/8/2p5/4P3/5N2/PPPP1PPP/RNBQKB1R b - 1 2"));
         assertThrows(IllegalArgumentException.class, () -> Fen.parse("rnbqkbnr/pp1ppppp/44/2p5/4P3/5N2/PPPP1PPP/RNBQKB1R b - - 1 2"));
     }
-}
\ No newline at end of file
+
+    @org.junit.jupiter.api.Test
+    void fields() {
+        final Fen fen = Fen.parse(" rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 12 34 ");
+
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR", fen.getPiecePlacement());
+        assertEquals("b", fen.getActiveColor());
+        assertEquals("KQkq", fen.getCastlingAvailability());
+        assertEquals("e3", fen.getEnPassantTargetSquare());
+        assertEquals("12", fen.getHalfmoveClock());
+        assertEquals("34", fen.getFullmoveClock());
+
+        final Fen withoutClocks = Fen.parse("8/8/8/8/8/8/8/8 w - -");
+
+        assertEquals("-", withoutClocks.getEnPassantTargetSquare());
+        assertEquals("0", withoutClocks.getHalfmoveClock());
+        assertEquals("1", withoutClocks.getFullmoveClock());
+    }
+
+    @org.junit.jupiter.api.Test
+    void readerRejectsMalformedFields() {
+        assertFalse(FenReader.isValid("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1"));
+        assertFalse(FenReader.isValid("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w QK - 0 1"));
+        assertFalse(FenReader.isValid("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KK - 0 1"));
+        assertFalse(FenReader.isValid("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq i3 0 1"));
+        assertFalse(FenReader.isValid("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0"));
+        assertFalse(FenReader.isValid("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 2"));
+        assertFalse(FenReader.isValid("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 99999999999"));
+        assertFalse(FenReader.isValid("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1"));
+        assertFalse(FenReader.isValid("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNRR w KQkq - 0 1"));
+        assertFalse(FenReader.isValid("rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+    }
+}
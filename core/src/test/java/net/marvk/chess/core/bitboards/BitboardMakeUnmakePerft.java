@@ -110,6 +110,39 @@ public class BitboardMakeUnmakePerft {
         }
     }
 
+    @ParameterizedTest
+    @MethodSource("perfts")
+    public void legalPerftTest(final NominalPerft nominalPerft) {
+        for (int i = 1; i <= nominalPerft.depth; i++) {
+            final NominalPerftStep step = nominalPerft.getForDepth(i);
+            final long perft = legalPerft(new Bitboard(nominalPerft.fen), step.depth);
+
+            Assertions.assertEquals(step.nodes, perft, "Depth " + i + "\n" + nominalPerft.fen + "\n");
+        }
+    }
+
+    private static long legalPerft(final Bitboard board, final int depth) {
+        final MoveList moves = board.generateLegalMoves(new MoveList());
+
+        if (depth == 1) {
+            Assertions.assertEquals(!moves.isEmpty(), board.hasAnyLegalMove());
+
+            return moves.size();
+        }
+
+        long nodes = 0L;
+
+        for (int i = 0; i < moves.size(); i++) {
+            final long move = moves.get(i);
+
+            board.make(move);
+            nodes += legalPerft(board, depth - 1);
+            board.unmake(move);
+        }
+
+        return nodes;
+    }
+
     private static long perft(final Bitboard board, final int depth) {
         if (depth == 0) {
             return 1L;
@@ -1,5 +1,6 @@
 package net.marvk.chess.core.bitboards;
 
+import net.marvk.chess.core.Color;
 import net.marvk.chess.core.Fen;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -14,6 +15,202 @@ class BitboardTest {
         Assertions.assertEquals(fen, new Bitboard(Fen.parse(fen)).fen());
     }
 
+    @ParameterizedTest
+    @MethodSource("fenStrings")
+    void fromFen(final String fen) {
+        final Bitboard expected = new Bitboard(Fen.parse(fen));
+        final Bitboard actual = Bitboard.fromFen(fen);
+
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertEquals(expected.zobristHash(), actual.zobristHash());
+        Assertions.assertEquals(fen, actual.appendFen(new StringBuilder()).toString());
+    }
+
+    @ParameterizedTest
+    @MethodSource("fenStrings")
+    void incrementalZobristHash(final String fen) {
+        final Bitboard board = new Bitboard(Fen.parse(fen));
+
+        assertZobristHashConsistent(board, 3);
+    }
+
+    private static void assertZobristHashConsistent(final Bitboard board, final int depth) {
+        Assertions.assertEquals(board.computeZobristHash(), board.zobristHash(), board::fen);
+
+        if (depth == 0) {
+            return;
+        }
+
+        final MoveList moves = board.generatePseudoLegalMoves(new MoveList());
+
+        for (int i = 0; i < moves.size(); i++) {
+            final long move = moves.get(i);
+            final long hashBefore = board.zobristHash();
+
+            board.make(move);
+
+            if (!board.isInvalidPosition()) {
+                assertZobristHashConsistent(board, depth - 1);
+            }
+
+            board.unmake(move);
+
+            Assertions.assertEquals(hashBefore, board.zobristHash(), board::fen);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("fenStrings")
+    void nullMove(final String fen) {
+        final Bitboard board = new Bitboard(Fen.parse(fen));
+        final long hashBefore = board.zobristHash();
+
+        final long state = board.makeNull();
+
+        final String[] fields = board.fen().split(" ");
+
+        Assertions.assertEquals(board.getActivePlayer() == Color.WHITE ? "w" : "b", fields[1]);
+        Assertions.assertNotEquals(fen.split(" ")[1], fields[1]);
+        Assertions.assertEquals("-", fields[3]);
+        Assertions.assertEquals(board.computeZobristHash(), board.zobristHash(), board::fen);
+
+        board.unmakeNull(state);
+
+        Assertions.assertEquals(fen, board.fen());
+        Assertions.assertEquals(hashBefore, board.zobristHash());
+    }
+
+    @ParameterizedTest
+    @MethodSource("fenStrings")
+    void incrementalBoardState(final String fen) {
+        assertMatchesFen(new Bitboard(Fen.parse(fen)), 2);
+    }
+
+    private static void assertMatchesFen(final Bitboard board, final int depth) {
+        // fen() reads the mailbox and equals compares the piece bitboards and cached occupancies
+        final Bitboard expected = new Bitboard(Fen.parse(board.fen()));
+
+        Assertions.assertEquals(expected, board, board::fen);
+
+        Assertions.assertEquals(expected.computeScore(Color.WHITE), board.computeScore(Color.WHITE), board::fen);
+        Assertions.assertEquals(expected.computeScore(Color.BLACK), board.computeScore(Color.BLACK), board::fen);
+        Assertions.assertEquals(expected.pieceSquareValue(Color.WHITE), board.pieceSquareValue(Color.WHITE), board::fen);
+
+        if (depth == 0) {
+            return;
+        }
+
+        final MoveList moves = board.generateLegalMoves(new MoveList());
+
+        for (int i = 0; i < moves.size(); i++) {
+            final long move = moves.get(i);
+
+            board.make(move);
+            assertMatchesFen(board, depth - 1);
+            board.unmake(move);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("fenStrings")
+    void legalMoves(final String fen) {
+        final Bitboard board = new Bitboard(Fen.parse(fen));
+
+        assertLegalMovesConsistent(board, 2);
+    }
+
+    private static void assertLegalMovesConsistent(final Bitboard board, final int depth) {
+        final MoveList legalMoves = board.generateLegalMoves(new MoveList());
+
+        assertSameMoves(filterInvalid(board, board.generatePseudoLegalMoves(new MoveList())), legalMoves, board);
+        assertSameMoves(filterInvalid(board, board.generatePseudoLegalAttackMoves(new MoveList())), board.generateLegalAttackMoves(new MoveList()), board);
+
+        Assertions.assertEquals(!legalMoves.isEmpty(), board.hasAnyLegalMove(), board::fen);
+
+        final MoveList attackMoves = board.generateLegalAttackMoves(new MoveList());
+        final MoveList tacticalMoves = board.generateLegalTacticalMoves(new MoveList());
+        final MoveList quietMoves = board.generateLegalQuietMoves(new MoveList());
+
+        Assertions.assertEquals(legalMoves.size(), tacticalMoves.size() + quietMoves.size(), board::fen);
+
+        int pushPromotions = 0;
+
+        for (int i = 0; i < tacticalMoves.size(); i++) {
+            final long move = tacticalMoves.get(i);
+
+            Assertions.assertTrue(Bitboard.BBMove.isAttack(move) || Bitboard.BBMove.isPromotion(move), board::fen);
+
+            if (!Bitboard.BBMove.isAttack(move)) {
+                pushPromotions++;
+            }
+        }
+
+        Assertions.assertEquals(attackMoves.size() + pushPromotions, tacticalMoves.size(), board::fen);
+
+        for (int i = 0; i < quietMoves.size(); i++) {
+            Assertions.assertFalse(Bitboard.BBMove.isAttack(quietMoves.get(i)), board::fen);
+            Assertions.assertFalse(Bitboard.BBMove.isPromotion(quietMoves.get(i)), board::fen);
+        }
+
+        for (int i = 0; i < legalMoves.size(); i++) {
+            final long move = legalMoves.get(i);
+
+            Assertions.assertEquals(move, board.findLegalMove(Bitboard.BBMove.key(move)), board::fen);
+        }
+
+        final MoveList pseudoLegalMoves = board.generatePseudoLegalMoves(new MoveList());
+
+        for (int i = 0; i < pseudoLegalMoves.size(); i++) {
+            final long move = pseudoLegalMoves.get(i);
+
+            board.make(move);
+            final boolean invalid = board.isInvalidPosition();
+            board.unmake(move);
+
+            if (invalid) {
+                Assertions.assertEquals(0L, board.findLegalMove(Bitboard.BBMove.key(move)), board::fen);
+            }
+        }
+
+        if (depth == 0) {
+            return;
+        }
+
+        for (int i = 0; i < legalMoves.size(); i++) {
+            final long move = legalMoves.get(i);
+
+            board.make(move);
+            assertLegalMovesConsistent(board, depth - 1);
+            board.unmake(move);
+        }
+    }
+
+    private static MoveList filterInvalid(final Bitboard board, final MoveList pseudoLegalMoves) {
+        final MoveList result = new MoveList();
+
+        for (int i = 0; i < pseudoLegalMoves.size(); i++) {
+            final long move = pseudoLegalMoves.get(i);
+
+            board.make(move);
+
+            if (!board.isInvalidPosition()) {
+                result.add(move, pseudoLegalMoves.getMvvLvaValue(i), 0);
+            }
+
+            board.unmake(move);
+        }
+
+        return result;
+    }
+
+    private static void assertSameMoves(final MoveList expected, final MoveList actual, final Bitboard board) {
+        Assertions.assertEquals(expected.size(), actual.size(), board::fen);
+
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(expected.get(i), actual.get(i), board::fen);
+        }
+    }
+
     private static Stream<String> fenStrings() {
         return Stream.of(
                 "8/r2p4/3N3p/n4P1q/3P2k1/P2PQ1p1/pK6/2R5 w - - 0 1",
@@ -0,0 +1,66 @@
+package net.marvk.chess.core.bitboards;
+
+import net.marvk.chess.core.Fen;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class MoveListTest {
+    private static final Fen FEN = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+
+    @Test
+    public void generatesSameMovesAsList() {
+        final Bitboard board = new Bitboard(FEN);
+
+        final List<Bitboard.BBMove> expected = board.generatePseudoLegalMoves();
+        final MoveList actual = board.generatePseudoLegalMoves(new MoveList());
+
+        Assertions.assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < actual.size(); i++) {
+            Assertions.assertEquals(expected.get(i).getBits(), actual.get(i));
+            Assertions.assertEquals(expected.get(i).getMvvLvaValue(), actual.getMvvLvaValue(i));
+        }
+    }
+
+    @Test
+    public void reuseClearsPreviousMoves() {
+        final Bitboard board = new Bitboard(FEN);
+        final MoveList moves = new MoveList();
+
+        final int all = board.generatePseudoLegalMoves(moves).size();
+        final int attacks = board.generatePseudoLegalAttackMoves(moves).size();
+
+        Assertions.assertTrue(attacks < all);
+
+        for (int i = 0; i < moves.size(); i++) {
+            Assertions.assertTrue(Bitboard.BBMove.isAttack(moves.get(i)));
+        }
+    }
+
+    @Test
+    public void sortByMvvLvaIsDescending() {
+        final MoveList moves = new Bitboard(FEN).generatePseudoLegalMoves(new MoveList());
+
+        moves.sortByMvvLva();
+
+        for (int i = 1; i < moves.size(); i++) {
+            Assertions.assertTrue(moves.getMvvLvaValue(i - 1) >= moves.getMvvLvaValue(i));
+        }
+    }
+
+    @Test
+    public void moveToFront() {
+        final MoveList moves = new Bitboard(FEN).generatePseudoLegalMoves(new MoveList());
+        final int size = moves.size();
+        final long last = moves.get(size - 1);
+        final long first = moves.get(0);
+
+        Assertions.assertTrue(moves.moveToFront(last));
+
+        Assertions.assertEquals(size, moves.size());
+        Assertions.assertEquals(last, moves.get(0));
+        Assertions.assertEquals(first, moves.get(1));
+    }
+}
@@ -0,0 +1,72 @@
+package net.marvk.chess.core.bitboards;
+
+import net.marvk.chess.core.Fen;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class PerftTest {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @ParameterizedTest
+    @CsvSource({
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1, 4, 197281",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1, 3, 97862",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1, 5, 674624",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1, 4, 422333",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8, 3, 62379",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10, 3, 89890"
+    })
+    void count(final String fen, final int depth, final long nodes) {
+        final Bitboard board = Bitboard.fromFen(fen);
+
+        Assertions.assertEquals(nodes, new Perft(4, 1).count(board, depth).getNodes());
+        Assertions.assertEquals(nodes, new Perft(1, 0).count(board, depth).getNodes());
+        Assertions.assertEquals(nodes, new Perft(2, 0).statistics(board, depth).getNodes());
+        Assertions.assertEquals(fen, board.fen());
+    }
+
+    @Test
+    void divide() {
+        final Perft.Result result = new Perft(2, 1).count(Bitboard.fromFen(KIWIPETE), 3);
+
+        Assertions.assertEquals(48, result.getDivide().size());
+        Assertions.assertEquals(result.getNodes(), result.getDivide().values().stream().mapToLong(Long::longValue).sum());
+        Assertions.assertEquals(2_039L, new Perft(2, 1).count(Bitboard.fromFen(KIWIPETE), 2).getNodes());
+        Assertions.assertNull(result.getStatistics());
+    }
+
+    @Test
+    void initialPositionStatistics() {
+        final Perft.Statistics statistics = new Perft(4, 0).statistics(new Bitboard(Fen.STARTING_POSITION), 4).getStatistics();
+
+        Assertions.assertEquals(1_576L, statistics.getCaptures());
+        Assertions.assertEquals(0L, statistics.getEnPassant());
+        Assertions.assertEquals(0L, statistics.getCastles());
+        Assertions.assertEquals(0L, statistics.getPromotions());
+        Assertions.assertEquals(469L, statistics.getChecks());
+        Assertions.assertEquals(0L, statistics.getDiscoveryChecks());
+        Assertions.assertEquals(0L, statistics.getDoubleChecks());
+        Assertions.assertEquals(8L, statistics.getCheckmates());
+    }
+
+    @Test
+    void kiwipeteStatistics() {
+        final Perft.Statistics statistics = new Perft(4, 0).statistics(Bitboard.fromFen(KIWIPETE), 3).getStatistics();
+
+        Assertions.assertEquals(17_102L, statistics.getCaptures());
+        Assertions.assertEquals(45L, statistics.getEnPassant());
+        Assertions.assertEquals(3_162L, statistics.getCastles());
+        Assertions.assertEquals(0L, statistics.getPromotions());
+        Assertions.assertEquals(993L, statistics.getChecks());
+        Assertions.assertEquals(0L, statistics.getDiscoveryChecks());
+        Assertions.assertEquals(0L, statistics.getDoubleChecks());
+        Assertions.assertEquals(1L, statistics.getCheckmates());
+    }
+
+    @Test
+    void depthZero() {
+        Assertions.assertEquals(1L, new Perft().count(new Bitboard(Fen.STARTING_POSITION), 0).getNodes());
+    }
+}
@@ -0,0 +1,51 @@
+package net.marvk.chess.core.bitboards;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+class PextAttackTableTest {
+    private static final int OCCUPANCIES_PER_SQUARE = 1000;
+
+    @Test
+    public void rookAttacksMatchMagicBitboard() {
+        assertSameAttacks(MagicBitboard.ROOK, PextAttackTable.ROOK);
+    }
+
+    @Test
+    public void bishopAttacksMatchMagicBitboard() {
+        assertSameAttacks(MagicBitboard.BISHOP, PextAttackTable.BISHOP);
+    }
+
+    @Test
+    public void compressGathersMaskedBitsInOrder() {
+        Assertions.assertEquals(0b101L, Pext.compress(0b1000_0001L, 0b1100_0001L));
+        Assertions.assertEquals(0L, Pext.compress(-1L, 0L));
+        Assertions.assertEquals(-1L, Pext.compress(-1L, -1L));
+        Assertions.assertEquals(1L, Pext.compress(Long.MIN_VALUE, Long.MIN_VALUE));
+    }
+
+    @Test
+    public void selectsMagicUnlessPextIsAvailable() {
+        Assertions.assertEquals(SlidingAttacks.Backend.MAGIC, SlidingAttacks.selectBackend(null));
+        Assertions.assertEquals(SlidingAttacks.Backend.MAGIC, SlidingAttacks.selectBackend("unknown"));
+        Assertions.assertEquals(SlidingAttacks.Backend.MAGIC, SlidingAttacks.selectBackend("magic"));
+
+        final SlidingAttacks.Backend expected = Pext.isIntrinsic() ? SlidingAttacks.Backend.PEXT : SlidingAttacks.Backend.MAGIC;
+
+        Assertions.assertEquals(expected, SlidingAttacks.selectBackend("pext"));
+    }
+
+    private static void assertSameAttacks(final SlidingAttackTable expected, final SlidingAttackTable actual) {
+        final Random random = new Random(0);
+
+        for (int square = 0; square < 64; square++) {
+            for (int i = 0; i < OCCUPANCIES_PER_SQUARE; i++) {
+                final long occupancy = random.nextLong() & random.nextLong();
+
+                Assertions.assertEquals(expected.attacks(occupancy, square), actual.attacks(occupancy, square));
+            }
+        }
+    }
+}
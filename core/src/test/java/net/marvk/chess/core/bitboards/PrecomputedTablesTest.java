@@ -0,0 +1,65 @@
+package net.marvk.chess.core.bitboards;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class PrecomputedTablesTest {
+    @Test
+    public void resourceMatchesRuntimeGeneration() throws IOException {
+        final Map<String, long[]> loaded;
+
+        try (final InputStream inputStream = PrecomputedTables.class.getResourceAsStream(PrecomputedTables.RESOURCE)) {
+            Assertions.assertNotNull(inputStream, "Missing " + PrecomputedTables.RESOURCE + ", it is generated in the process-classes phase");
+
+            loaded = PrecomputedTables.read(inputStream);
+        }
+
+        final Map<String, long[]> generated = PrecomputedTables.generate();
+
+        Assertions.assertEquals(generated.keySet(), loaded.keySet());
+
+        for (final Map.Entry<String, long[]> entry : generated.entrySet()) {
+            Assertions.assertArrayEquals(entry.getValue(), loaded.get(entry.getKey()), entry.getKey());
+        }
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        final Map<String, long[]> tables = new LinkedHashMap<>();
+        tables.put("a", new long[]{1L, -1L, Long.MIN_VALUE});
+        tables.put("b", new long[0]);
+
+        final Map<String, long[]> actual = PrecomputedTables.read(new ByteArrayInputStream(write(tables)));
+
+        Assertions.assertEquals(tables.keySet(), actual.keySet());
+        Assertions.assertArrayEquals(tables.get("a"), actual.get("a"));
+        Assertions.assertArrayEquals(tables.get("b"), actual.get("b"));
+    }
+
+    @Test
+    public void rejectsCorruptedResource() throws IOException {
+        final Map<String, long[]> tables = new LinkedHashMap<>();
+        tables.put("a", new long[]{1L, 2L, 3L});
+
+        final byte[] bytes = write(tables);
+        bytes[bytes.length / 2] ^= 1;
+
+        Assertions.assertThrows(IOException.class, () -> PrecomputedTables.read(new ByteArrayInputStream(bytes)));
+        Assertions.assertThrows(IOException.class, () -> PrecomputedTables.read(new ByteArrayInputStream(new byte[3])));
+    }
+
+    private static byte[] write(final Map<String, long[]> tables) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        PrecomputedTables.write(tables, outputStream);
+
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,375 @@
+package net.marvk.chess.kairukuengine;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Transposition table entries that outlive the engine. Deep exact entries of finished searches are appended to a file
+ * of {@value #RECORD_BYTES} byte records, the Zobrist key followed by the packed {@link TranspositionTable} entry. On
+ * open the file is memory mapped and read into an open addressing map that keeps the deepest entry per key, which then
+ * seeds empty transposition tables via {@link #seed(TranspositionTable)}.
+ *
+ * <p>The map holds at most {@code megabytes} worth of records. Once it is full the shallowest quarter of the entries is
+ * evicted in place. The file, which also accumulates superseded and evicted records, is compacted by rewriting it from
+ * the map on a background thread after an eviction or once it holds twice the limit, and on {@link #close()}, so
+ * recording never waits for a rewrite. All methods are synchronized so one instance can be shared by the engines of
+ * concurrent games.</p>
+ */
+@Log4j2
+public final class ExperienceFile implements Closeable {
+    public static final int RECORD_BYTES = 2 * Long.BYTES;
+
+    public static final int MIN_MEGABYTES = 1;
+    public static final int MAX_MEGABYTES = 1024;
+
+    // "KAIRUX" followed by the format version
+    private static final long MAGIC = 0x4b41495255580001L;
+    private static final int HEADER_BYTES = Long.BYTES;
+
+    private final Path path;
+    private final int maxRecords;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private int size;
+
+    private final ExecutorService compactor;
+
+    private FileChannel channel;
+    private long fileRecords;
+    private boolean evicted;
+    private boolean compactionScheduled;
+
+    private ExperienceFile(final Path path, final int megabytes) {
+        if (megabytes < MIN_MEGABYTES || megabytes > MAX_MEGABYTES) {
+            throw new IllegalArgumentException("Size must be between " + MIN_MEGABYTES + " and " + MAX_MEGABYTES + " MB, was " + megabytes);
+        }
+
+        this.path = path;
+        this.maxRecords = megabytes * 1024 * 1024 / RECORD_BYTES;
+        this.keys = new long[Integer.highestOneBit(maxRecords) * 2];
+        this.data = new long[keys.length];
+        this.mask = keys.length - 1;
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "experience-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the file at the path, creating it if it does not exist
+     *
+     * @param megabytes the maximum size of the experience, the file may grow to twice the size before it is compacted
+     * @throws UncheckedIOException if the file cannot be read or is not an experience file, which is left untouched
+     */
+    public static ExperienceFile open(final Path path, final int megabytes) {
+        final ExperienceFile result = new ExperienceFile(path, megabytes);
+
+        try {
+            result.load();
+        } catch (final IOException e) {
+            result.compactor.shutdown();
+            throw new UncheckedIOException("Failed to open experience file " + path, e);
+        }
+
+        return result;
+    }
+
+    private void load() throws IOException {
+        if (Files.exists(path) && Files.size(path) > 0L) {
+            try (final FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+                final MappedByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0L, readChannel.size());
+
+                if (buffer.remaining() < HEADER_BYTES || buffer.getLong(0) != MAGIC) {
+                    throw new IOException(path + " is not an experience file");
+                }
+
+                for (int i = HEADER_BYTES; i + RECORD_BYTES <= buffer.limit(); i += RECORD_BYTES) {
+                    put(buffer.getLong(i), buffer.getLong(i + Long.BYTES));
+                    fileRecords++;
+                }
+            }
+        }
+
+        if (fileRecords == 0L || fileRecords != size) {
+            rewrite();
+        } else {
+            channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        log.info("loaded " + size + " experience entries from " + path);
+    }
+
+    /**
+     * Records the packed entry if it is exact and at least as deep as the entry already recorded for the key and
+     * differs from it
+     */
+    public synchronized void record(final long zobristHash, final long entry) {
+        if (entry == TranspositionTable.NO_ENTRY || TranspositionTable.nodeType(entry) != TranspositionTable.NodeType.EXACT) {
+            return;
+        }
+
+        if (!put(zobristHash, entry)) {
+            return;
+        }
+
+        try {
+            final ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES);
+            buffer.putLong(zobristHash).putLong(entry).flip();
+
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+            fileRecords++;
+
+            if (needsCompaction() && !compactionScheduled) {
+                compactionScheduled = true;
+                compactor.execute(this::compact);
+            }
+        } catch (final IOException e) {
+            log.error("failed to write experience file " + path, e);
+        }
+    }
+
+    /**
+     * Stores all entries in the table
+     */
+    public synchronized void seed(final TranspositionTable table) {
+        for (int i = 0; i < keys.length; i++) {
+            final long entry = data[i];
+
+            if (entry != TranspositionTable.NO_ENTRY) {
+                table.store(
+                        keys[i],
+                        TranspositionTable.moveKey(entry),
+                        TranspositionTable.value(entry),
+                        TranspositionTable.depth(entry),
+                        TranspositionTable.nodeType(entry)
+                );
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Compacts the file if needed and closes it
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        compactor.shutdown();
+
+        if (channel != null && needsCompaction()) {
+            rewrite();
+        }
+
+        closeChannel();
+    }
+
+    private boolean needsCompaction() {
+        return evicted || fileRecords > 2L * maxRecords;
+    }
+
+    private synchronized void compact() {
+        compactionScheduled = false;
+
+        if (channel == null || !needsCompaction()) {
+            return;
+        }
+
+        try {
+            rewrite();
+        } catch (final IOException e) {
+            log.error("failed to compact experience file " + path, e);
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * @return whether the entry was added or replaced another one
+     */
+    private boolean put(final long zobristHash, final long entry) {
+        int index = (int) zobristHash & mask;
+
+        while (data[index] != TranspositionTable.NO_ENTRY) {
+            if (keys[index] == zobristHash) {
+                final long recorded = data[index];
+
+                if (TranspositionTable.depth(entry) < TranspositionTable.depth(recorded)) {
+                    return false;
+                }
+
+                if (TranspositionTable.depth(entry) == TranspositionTable.depth(recorded)
+                        && TranspositionTable.moveKey(entry) == TranspositionTable.moveKey(recorded)
+                        && TranspositionTable.value(entry) == TranspositionTable.value(recorded)) {
+                    return false;
+                }
+
+                data[index] = entry;
+                return true;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        if (size >= maxRecords) {
+            evictShallowest();
+            return put(zobristHash, entry);
+        }
+
+        keys[index] = zobristHash;
+        data[index] = entry;
+        size++;
+
+        return true;
+    }
+
+    /**
+     * Removes the shallowest quarter of the entries in place, the file is compacted later
+     */
+    private void evictShallowest() {
+        evicted = true;
+
+        final int[] depthCounts = new int[256];
+
+        for (final long entry : data) {
+            if (entry != TranspositionTable.NO_ENTRY) {
+                depthCounts[TranspositionTable.depth(entry)]++;
+            }
+        }
+
+        int evict = size / 4 + 1;
+        int minDepth = 0;
+
+        while (minDepth < depthCounts.length && evict >= depthCounts[minDepth]) {
+            evict -= depthCounts[minDepth];
+            minDepth++;
+        }
+
+        for (int i = 0; i < data.length; i++) {
+            final long entry = data[i];
+
+            if (entry == TranspositionTable.NO_ENTRY) {
+                continue;
+            }
+
+            final int depth = TranspositionTable.depth(entry);
+
+            if (depth < minDepth || depth == minDepth && evict > 0) {
+                if (depth == minDepth) {
+                    evict--;
+                }
+
+                keys[i] = 0L;
+                data[i] = TranspositionTable.NO_ENTRY;
+                size--;
+            }
+        }
+
+        closeProbeGaps();
+    }
+
+    /**
+     * Moves every entry to the first free slot of its probe sequence, so no entry is behind a removed one. Walking
+     * from a free slot, the home slot of every entry is at or behind it, so each entry only ever moves backwards into
+     * slots already settled.
+     */
+    private void closeProbeGaps() {
+        int start = 0;
+
+        while (data[start] != TranspositionTable.NO_ENTRY) {
+            start++;
+        }
+
+        for (int offset = 1; offset <= mask; offset++) {
+            final int index = (start + offset) & mask;
+            final long entry = data[index];
+
+            if (entry == TranspositionTable.NO_ENTRY) {
+                continue;
+            }
+
+            final long key = keys[index];
+
+            keys[index] = 0L;
+            data[index] = TranspositionTable.NO_ENTRY;
+
+            int slot = (int) key & mask;
+
+            while (data[slot] != TranspositionTable.NO_ENTRY) {
+                slot = (slot + 1) & mask;
+            }
+
+            keys[slot] = key;
+            data[slot] = entry;
+        }
+    }
+
+    /**
+     * Writes the map to a temporary file that replaces the experience file
+     */
+    private void rewrite() throws IOException {
+        closeChannel();
+
+        final Path absolute = path.toAbsolutePath();
+        final Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+
+        try (final FileChannel writeChannel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            buffer.putLong(MAGIC);
+
+            for (int i = 0; i < keys.length; i++) {
+                if (data[i] == TranspositionTable.NO_ENTRY) {
+                    continue;
+                }
+
+                if (buffer.remaining() < RECORD_BYTES) {
+                    writeFully(writeChannel, buffer);
+                }
+
+                buffer.putLong(keys[i]).putLong(data[i]);
+            }
+
+            writeFully(writeChannel, buffer);
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+
+        fileRecords = size;
+        evicted = false;
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+}
@@ -0,0 +1,44 @@
+package net.marvk.chess.kairukuengine;
+
+import java.util.Arrays;
+
+/**
+ * Transposition table backed by a single {@code long[]} on the Java heap
+ */
+final class HeapTranspositionTable extends TranspositionTable {
+    /**
+     * The largest power of two size whose slot array still fits into a Java array
+     */
+    static final int MAX_MEGABYTES = 8192;
+
+    private final long[] slots;
+
+    HeapTranspositionTable(final int megabytes) {
+        super(megabytes, MAX_MEGABYTES);
+
+        this.slots = new long[Math.toIntExact(capacity() * 2)];
+    }
+
+    @Override
+    long readKey(final long entry) {
+        return slots[(int) entry * 2];
+    }
+
+    @Override
+    long readData(final long entry) {
+        return slots[(int) entry * 2 + 1];
+    }
+
+    @Override
+    void write(final long entry, final long key, final long data) {
+        final int index = (int) entry * 2;
+
+        slots[index] = key;
+        slots[index + 1] = data;
+    }
+
+    @Override
+    void clearEntries() {
+        Arrays.fill(slots, 0L);
+    }
+}
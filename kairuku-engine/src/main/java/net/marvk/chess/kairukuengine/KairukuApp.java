@@ -17,6 +17,12 @@ public final class KairukuApp {
             System.out.println(s);
         }));
 
+        if (args.length > 0 && "bench".equals(args[0])) {
+            engine.bench(args.length > 1 ? Integer.valueOf(args[1]) : null);
+            engine.quit();
+            return;
+        }
+
         try (final ConsoleEngineChannel consoleEngineChannel = new ConsoleEngineChannel(engine, System.in)) {
             consoleEngineChannel.start();
         }
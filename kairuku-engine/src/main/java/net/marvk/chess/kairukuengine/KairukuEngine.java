@@ -5,54 +5,143 @@ import net.marvk.chess.core.Color;
 import net.marvk.chess.core.Fen;
 import net.marvk.chess.core.UciMove;
 import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.core.bitboards.Perft;
 import net.marvk.chess.uci4j.*;
 import org.apache.commons.lang3.time.StopWatch;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Log4j2
 public class KairukuEngine extends SimpleUciEngine {
     private static final String PLY_OPTION = "ply";
+    private static final String HASH_OPTION = "Hash";
+    private static final String HASH_STORAGE_OPTION = "HashStorage";
+    private static final String EXPERIENCE_FILE_OPTION = "ExperienceFile";
+    private static final String EXPERIENCE_SIZE_OPTION = "ExperienceSize";
+    private static final String EXPERIENCE_DEPTH_OPTION = "ExperienceDepth";
+    private static final String THREADS_OPTION = "Threads";
+    private static final String MOVE_OVERHEAD_OPTION = "Move Overhead";
+    private static final String LMR_BASE_OPTION = "LmrBase";
+    private static final String LMR_DIVISOR_OPTION = "LmrDivisor";
+    private static final String LMR_MIN_DEPTH_OPTION = "LmrMinDepth";
+    private static final String LMR_FULL_DEPTH_MOVES_OPTION = "LmrFullDepthMoves";
+
+    private static final int DEFAULT_HASH_MEGABYTES = 64;
+    private static final int DEFAULT_EXPERIENCE_MEGABYTES = 16;
+    private static final int DEFAULT_EXPERIENCE_DEPTH = 4;
+    private static final int MAX_THREADS = 256;
+    private static final int MAX_MOVE_OVERHEAD = 5000;
+
+    /**
+     * The depth limit of searches that are only limited by time, nodes, a mate or the stop command
+     */
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * Added to the value difference of every vote so that the worst result still votes with its depth
+     */
+    private static final int VOTE_BASE = 14;
+
+    private static final int BENCH_DEPTH = 5;
+
+    /**
+     * Positions searched by {@link #bench(Integer)}, changing them changes the bench signature
+     */
+    private static final String[] BENCH_POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "rnbqkbnr/pp1ppppp/8/2p5/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2",
+            "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4",
+            "2rq1rk1/pp1bppbp/2np1np1/8/3NP3/1BN1BP2/PPPQ2PP/2KR3R b - - 0 11",
+            "8/8/8/4P1k1/7n/4K3/8/8 w - - 0 1",
+            "8/5r2/4K3/4N3/3k4/8/8/8 w - - 0 1",
+            "7k/5P2/8/8/8/8/4p3/2K5 w - - 0 1"
+    };
 
     private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#.#####", new DecimalFormatSymbols(Locale.ENGLISH));
 
-    private final MvvLvaPieceSquareDifferenceMoveOrder defaultMoveOrder = new MvvLvaPieceSquareDifferenceMoveOrder();
-    private final MvvLvaMoveOrder quiescenceSearchMoveOrder = new MvvLvaMoveOrder();
-
     private final Heuristic heuristic = new SimpleHeuristic();
 
     private final ExecutorService executor;
 
+    // the main search runs on the executor, the helper searches of lazy SMP on the helper executor
+    private Search[] searches;
+    private ExecutorService helperExecutor;
+
     private Future<Void> calculationFuture;
-    private int ply;
-    private double plyBonus;
+    private int defaultPly;
+    private SearchLimits limits;
+
+    private final TimeManager timeManager = new TimeManager();
+    private int moveOverhead = TimeManager.DEFAULT_MOVE_OVERHEAD;
+
+    // set by stop, so a stop that arrives before the search started still aborts it
+    private volatile boolean stopRequested;
+    // counted down by stop, an infinite search waits for it before sending its best move
+    private volatile CountDownLatch stopLatch = new CountDownLatch(0);
 
     private Bitboard board;
 
     private Color selfColor;
 
     private final Metrics metrics = new Metrics();
-    private final TranspositionTable<TranspositionTable.Entry> transpositionTable = new TranspositionTable<>(10_000_000);
+    private int hashMegabytes = DEFAULT_HASH_MEGABYTES;
+    private TranspositionTable.Storage hashStorage = TranspositionTable.Storage.HEAP;
+    private TranspositionTable transpositionTable = TranspositionTable.create(hashStorage, hashMegabytes);
     private final Set<Long> movesSinceHalfmoveReset = new HashSet<>();
 
+    private ExperienceFile experience;
+    private boolean ownsExperience;
+    private int experienceMegabytes = DEFAULT_EXPERIENCE_MEGABYTES;
+    private int experienceDepth = DEFAULT_EXPERIENCE_DEPTH;
+
     private final Set<UciMove> searchMoves = new HashSet<>();
 
-    private Bitboard.BBMove[] previousPv;
-    private final int quiescencePly = Integer.MAX_VALUE;
+    private int lmrBase = LateMoveReductions.DEFAULT_BASE;
+    private int lmrDivisor = LateMoveReductions.DEFAULT_DIVISOR;
+    private int lmrMinDepth = LateMoveReductions.DEFAULT_MIN_DEPTH;
+    private int lmrFullDepthMoves = LateMoveReductions.DEFAULT_FULL_DEPTH_MOVES;
+    private LateMoveReductions lateMoveReductions = LateMoveReductions.defaults();
+
+    private long[] previousPv;
+    private int completedDepth;
 
     public KairukuEngine(final UiChannel uiChannel) {
         super(uiChannel);
 
-        this.ply = 7;
+        this.defaultPly = 7;
         this.executor = Executors.newSingleThreadExecutor();
+
+        setThreads(1);
+    }
+
+    /**
+     * @param experience experience shared with other engines, seeds the transposition table and records the deep
+     *                   exact entries of every search, it is not closed by the engine
+     */
+    public KairukuEngine(final UiChannel uiChannel, final ExperienceFile experience) {
+        this(uiChannel);
+
+        this.experience = experience;
+
+        experience.seed(transpositionTable);
     }
 
     public Metrics getMetrics() {
@@ -64,7 +153,24 @@ public class KairukuEngine extends SimpleUciEngine {
     @Override
     public void uci() {
         uiChannel.idName("kairuku");
-        uiChannel.optionSpin(PLY_OPTION, ply, 1, 7);
+        uiChannel.optionSpin(PLY_OPTION, defaultPly, 1, 7);
+        uiChannel.optionSpin(HASH_OPTION, DEFAULT_HASH_MEGABYTES, TranspositionTable.MIN_MEGABYTES, TranspositionTable.MAX_MEGABYTES);
+        uiChannel.optionCombo(
+                HASH_STORAGE_OPTION,
+                TranspositionTable.Storage.HEAP.name().toLowerCase(Locale.ROOT),
+                Arrays.stream(TranspositionTable.Storage.values())
+                      .map(storage -> storage.name().toLowerCase(Locale.ROOT))
+                      .collect(Collectors.toList())
+        );
+        uiChannel.optionSpin(THREADS_OPTION, 1, 1, MAX_THREADS);
+        uiChannel.optionSpin(MOVE_OVERHEAD_OPTION, TimeManager.DEFAULT_MOVE_OVERHEAD, 0, MAX_MOVE_OVERHEAD);
+        uiChannel.optionString(EXPERIENCE_FILE_OPTION, "<empty>");
+        uiChannel.optionSpin(EXPERIENCE_SIZE_OPTION, DEFAULT_EXPERIENCE_MEGABYTES, ExperienceFile.MIN_MEGABYTES, ExperienceFile.MAX_MEGABYTES);
+        uiChannel.optionSpin(EXPERIENCE_DEPTH_OPTION, DEFAULT_EXPERIENCE_DEPTH, 1, 64);
+        uiChannel.optionSpin(LMR_BASE_OPTION, LateMoveReductions.DEFAULT_BASE, 0, 300);
+        uiChannel.optionSpin(LMR_DIVISOR_OPTION, LateMoveReductions.DEFAULT_DIVISOR, 50, 1000);
+        uiChannel.optionSpin(LMR_MIN_DEPTH_OPTION, LateMoveReductions.DEFAULT_MIN_DEPTH, 2, 16);
+        uiChannel.optionSpin(LMR_FULL_DEPTH_MOVES_OPTION, LateMoveReductions.DEFAULT_FULL_DEPTH_MOVES, 1, 64);
     }
 
     @Override
@@ -80,10 +186,110 @@ public class KairukuEngine extends SimpleUciEngine {
     @Override
     public void setOption(final String name, final String value) {
         if (PLY_OPTION.equals(name)) {
-            ply = Integer.parseInt(value);
+            defaultPly = Integer.parseInt(value);
+        } else if (HASH_OPTION.equals(name)) {
+            hashMegabytes = Integer.parseInt(value);
+            resizeTranspositionTable();
+        } else if (HASH_STORAGE_OPTION.equals(name)) {
+            hashStorage = TranspositionTable.Storage.valueOf(value.toUpperCase(Locale.ROOT));
+            resizeTranspositionTable();
+        } else if (MOVE_OVERHEAD_OPTION.equals(name)) {
+            moveOverhead = Integer.parseInt(value);
+        } else if (THREADS_OPTION.equals(name)) {
+            setThreads(Integer.parseInt(value));
+        } else if (EXPERIENCE_FILE_OPTION.equals(name)) {
+            openExperience(value == null || "<empty>".equals(value) ? null : Paths.get(value));
+        } else if (EXPERIENCE_SIZE_OPTION.equals(name)) {
+            experienceMegabytes = Integer.parseInt(value);
+        } else if (EXPERIENCE_DEPTH_OPTION.equals(name)) {
+            experienceDepth = Integer.parseInt(value);
+        } else if (LMR_BASE_OPTION.equals(name)) {
+            lmrBase = Integer.parseInt(value);
+            updateLateMoveReductions();
+        } else if (LMR_DIVISOR_OPTION.equals(name)) {
+            lmrDivisor = Integer.parseInt(value);
+            updateLateMoveReductions();
+        } else if (LMR_MIN_DEPTH_OPTION.equals(name)) {
+            lmrMinDepth = Integer.parseInt(value);
+            updateLateMoveReductions();
+        } else if (LMR_FULL_DEPTH_MOVES_OPTION.equals(name)) {
+            lmrFullDepthMoves = Integer.parseInt(value);
+            updateLateMoveReductions();
+        }
+    }
+
+    private void updateLateMoveReductions() {
+        lateMoveReductions = new LateMoveReductions(lmrBase, lmrDivisor, lmrMinDepth, lmrFullDepthMoves);
+
+        for (final Search search : searches) {
+            search.setLateMoveReductions(lateMoveReductions);
+        }
+    }
+
+    private void resizeTranspositionTable() {
+        int megabytes = hashMegabytes;
+
+        if (hashStorage == TranspositionTable.Storage.HEAP && megabytes > HeapTranspositionTable.MAX_MEGABYTES) {
+            log.warn("hash of " + megabytes + " MB exceeds the heap storage limit, using " + HeapTranspositionTable.MAX_MEGABYTES + " MB");
+            megabytes = HeapTranspositionTable.MAX_MEGABYTES;
+        }
+
+        // release the old table before allocating the new one
+        transpositionTable = null;
+        transpositionTable = TranspositionTable.create(hashStorage, megabytes);
+
+        if (experience != null) {
+            experience.seed(transpositionTable);
         }
     }
 
+    private void setThreads(final int threads) {
+        if (helperExecutor != null) {
+            helperExecutor.shutdownNow();
+            helperExecutor = null;
+        }
+
+        searches = new Search[Math.max(1, Math.min(threads, MAX_THREADS))];
+
+        for (int i = 0; i < searches.length; i++) {
+            searches[i] = new Search(heuristic, lateMoveReductions);
+        }
+
+        if (searches.length > 1) {
+            helperExecutor = Executors.newFixedThreadPool(searches.length - 1);
+        }
+    }
+
+    private void openExperience(final Path path) {
+        closeExperience();
+
+        if (path != null) {
+            try {
+                experience = ExperienceFile.open(path, experienceMegabytes);
+            } catch (final UncheckedIOException e) {
+                log.error("failed to open experience file", e);
+                return;
+            }
+
+            ownsExperience = true;
+
+            experience.seed(transpositionTable);
+        }
+    }
+
+    private void closeExperience() {
+        if (experience != null && ownsExperience) {
+            try {
+                experience.close();
+            } catch (final IOException e) {
+                log.error("failed to close experience file", e);
+            }
+        }
+
+        experience = null;
+        ownsExperience = false;
+    }
+
     @Override
     public void registerLater() {
 
@@ -97,6 +303,10 @@ public class KairukuEngine extends SimpleUciEngine {
     @Override
     public void uciNewGame() {
         resetAll();
+
+        if (experience != null) {
+            experience.seed(transpositionTable);
+        }
     }
 
     @Override
@@ -116,13 +326,41 @@ public class KairukuEngine extends SimpleUciEngine {
             return;
         }
 
+        if (go.getPerft() != null) {
+            perft(go.getPerft(), Boolean.TRUE.equals(go.getPerftStatistics()));
+            return;
+        }
+
         selfColor = board.getActivePlayer();
 
-        final Integer time = selfColor == Color.WHITE ? go.getWhiteTime() : go.getBlackTime();
+        timeManager.start(go, selfColor, moveOverhead);
+
+        final boolean infinite = Boolean.TRUE.equals(go.getInfinite());
+        final long nodes = go.getNodes() == null ? SearchLimits.NO_NODE_LIMIT : go.getNodes();
+        final int mate = go.getMate() == null ? SearchLimits.NO_MATE_LIMIT : go.getMate();
+
+        final int depth;
+
+        if (go.getDepth() != null) {
+            depth = go.getDepth();
+        } else if (timeManager.isLimited() || infinite || nodes != SearchLimits.NO_NODE_LIMIT || mate != SearchLimits.NO_MATE_LIMIT) {
+            depth = MAX_DEPTH;
+        } else {
+            depth = defaultPly;
+        }
+
+        limits = new SearchLimits(depth, nodes, mate, timeManager);
+
+        if (timeManager.isLimited()) {
+            log.info("searching to depth " + limits.getDepth() + ", soft limit " + timeManager.getSoftMillis() + "ms, hard limit " + timeManager.getHardMillis() + "ms");
+        } else {
+            log.info("searching to depth " + limits.getDepth());
+        }
 
-        final int actualPly = calculatePly(go, time);
+        stopRequested = false;
+        stopLatch = new CountDownLatch(infinite ? 1 : 0);
 
-        log.info("time remaining is " + time + "ms, setting ply to " + ply + " (" + actualPly + " + " + ((int) plyBonus) + ")");
+        final CountDownLatch infiniteLatch = stopLatch;
 
         calculationFuture = executor.submit(() -> {
             resetForMove();
@@ -131,7 +369,7 @@ public class KairukuEngine extends SimpleUciEngine {
                 searchMoves.addAll(Arrays.asList(go.getSearchMoves()));
             }
 
-            final ValuedMove play;
+            final SearchResult play;
             try {
                 play = play();
             } catch (final Throwable t) {
@@ -139,30 +377,30 @@ public class KairukuEngine extends SimpleUciEngine {
                 throw new RuntimeException(t);
             }
 
-            final List<ValuedMove> pv = Stream.iterate(play, vm -> vm.getPvChild() != null, ValuedMove::getPvChild)
-                                              .collect(Collectors.toList());
+            // an infinite search that ran out of depth or found a mate must not send its move before it is stopped
+            infiniteLatch.await();
+
+            previousPv = play.getPrincipalVariation();
 
-            previousPv = Stream.iterate(play, vm -> vm.getPvChild() != null, ValuedMove::getPvChild)
-                               .map(ValuedMove::getMove)
-                               .toArray(Bitboard.BBMove[]::new);
+            // the position command may replace the board as soon as the move is sent
+            final Bitboard searched = board;
 
             final UciMove[] pvArray =
-                    pv.stream()
-                      .map(ValuedMove::getMove)
-                      .filter(Objects::nonNull)
-                      .map(Bitboard.BBMove::asUciMove)
-                      .toArray(UciMove[]::new);
+                    Arrays.stream(previousPv)
+                          .mapToObj(Bitboard.BBMove::asUciMove)
+                          .toArray(UciMove[]::new);
 
-            uiChannel.bestMove(play.getMove().asUciMove());
+            uiChannel.bestMove(Bitboard.BBMove.asUciMove(play.getMove()));
 
             try {
                 final Info info =
                         Info.builder()
-                            .nps(((long) metrics.getLastNps()))
-                            .score(new Score(play.getValue(), null, null))
-                            .depth(ply)
+                            .nps(metrics.getLastNps())
+                            .score(score(play.getValue()))
+                            .depth(completedDepth)
                             .principalVariation(pvArray)
-                            .nodes(((long) metrics.getLastNodes()))
+                            .nodes(metrics.getLastNodes())
+                            .hashFull(transpositionTable.hashFull())
                             .time(((int) metrics.getLastDuration().toMillis()))
                             .generate();
 
@@ -171,87 +409,170 @@ public class KairukuEngine extends SimpleUciEngine {
                 log.error("unexpected error", t);
             }
 
+            recordExperience(searched, previousPv);
+
             return null;
         });
     }
 
-    @Override
-    public void stop() {
-        calculationFuture.cancel(true);
+    private void perft(final int depth, final boolean statistics) {
+        final Bitboard root = new Bitboard(board);
+
+        calculationFuture = executor.submit(() -> {
+            final Perft perft = new Perft();
+            final Perft.Result result;
+
+            try {
+                result = statistics ? perft.statistics(root, depth) : perft.count(root, depth);
+            } catch (final Throwable t) {
+                log.error("unexpected error during perft, board state:\n" + root, t);
+                throw new RuntimeException(t);
+            }
+
+            for (final Map.Entry<String, Long> entry : result.getDivide().entrySet()) {
+                uiChannel.info(Info.builder().string(entry.getKey() + ": " + entry.getValue()).generate());
+            }
+
+            uiChannel.info(
+                    Info.builder()
+                        .depth(depth)
+                        .nodes(result.getNodes())
+                        .nps(result.getNodesPerSecond())
+                        .time((int) (result.getNanos() / 1_000_000L))
+                        .generate()
+            );
+
+            if (result.getStatistics() != null) {
+                uiChannel.info(Info.builder().string(result.getStatistics().toString()).generate());
+            }
+
+            return null;
+        });
     }
 
+    /**
+     * Searches {@link #BENCH_POSITIONS} from a clean state like {@link #uciNewGame()}, reporting one info string per
+     * position and a final summary, all as {@code key value} pairs. The position has to be set again afterwards.
+     */
     @Override
-    public void ponderHit() {
+    public void bench(final Integer depth) {
+        final int benchDepth = depth == null ? BENCH_DEPTH : depth;
+
+        stopRequested = false;
+
+        final Future<Void> benchFuture = executor.submit(() -> {
+            long nodes = 0L;
+            long cutoffs = 0L;
+            long firstMoveCutoffs = 0L;
+            Duration duration = Duration.ZERO;
+
+            for (int i = 0; i < BENCH_POSITIONS.length; i++) {
+                resetAll();
+                resetForMove();
+
+                board = Bitboard.fromFen(BENCH_POSITIONS[i]);
+                selfColor = board.getActivePlayer();
+                limits = SearchLimits.depth(benchDepth);
+
+                final SearchResult play = play();
+
+                nodes += metrics.getLastNodes();
+                cutoffs += metrics.getLastCutoffs();
+                firstMoveCutoffs += metrics.getLastFirstMoveCutoffs();
+                duration = duration.plus(metrics.getLastDuration());
+
+                uiChannel.info(Info.builder().string(
+                        "bench position " + (i + 1)
+                                + " nodes " + metrics.getLastNodes()
+                                + " time " + metrics.getLastDuration().toMillis()
+                                + " bestmove " + Bitboard.BBMove.asUciMove(play.getMove())
+                ).generate());
+            }
+
+            final long nanos = Math.max(1L, duration.toNanos());
 
+            uiChannel.info(Info.builder().string(
+                    "bench depth " + benchDepth
+                            + " positions " + BENCH_POSITIONS.length
+                            + " nodes " + nodes
+                            + " time " + duration.toMillis()
+                            + " nps " + nodes * 1_000_000_000L / nanos
+                            + " firstmovecutoffs " + DECIMAL_FORMAT.format((double) firstMoveCutoffs / Math.max(1L, cutoffs))
+            ).generate());
+
+            return null;
+        });
+
+        try {
+            benchFuture.get();
+        } catch (final InterruptedException e) {
+            benchFuture.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException e) {
+            log.error("unexpected error during bench", e.getCause());
+        } finally {
+            resetAll();
+        }
     }
 
+    /**
+     * Aborts the search, which sends the best move of its last completed iteration
+     */
     @Override
-    public void quit() {
-        calculationFuture.cancel(true);
+    public void stop() {
+        stopRequested = true;
 
-        resetAll();
+        for (final Search search : searches) {
+            search.abort();
+        }
+
+        stopLatch.countDown();
     }
 
-    // endregion
+    @Override
+    public void ponderHit() {
 
-    private int calculatePly(final Go go, final Integer timeRemaining) {
-        if (go.getDepth() != null) {
-            ply = go.getDepth();
-            return ply;
-        }
+    }
 
-        if (timeRemaining == null) {
-            ply = 7;
-            return ply;
-        }
+    @Override
+    public void quit() {
+        stop();
 
-        if (timeRemaining > 60_000) {
-            ply = 7;
-        } else if (timeRemaining > 20_000) {
-            ply = 6;
-        } else if (timeRemaining > 7_500) {
-            ply = 5;
-        } else if (timeRemaining > 2_000) {
-            ply = 4;
-        } else if (timeRemaining > 1_000) {
-            ply = 3;
-        } else {
-            ply = 2;
-        }
-
-        if (board.getFullmoveClock() > 1 && metrics.getLastTableHitRate() < 0.75) {
-            final long lastMillis = metrics.getLastDuration().toMillis();
-
-            if (timeRemaining <= 30_000 && timeRemaining > 3_000) {
-                if (lastMillis < 10L) {
-                    plyBonus = 2;
-                } else if (lastMillis < 100L) {
-                    plyBonus = 1;
-                } else {
-                    plyBonus = 0.0;
-                }
-            } else {
-                plyBonus = 0.0;
-            }
+        if (calculationFuture != null) {
+            calculationFuture.cancel(true);
         }
 
-        final int actualPly = ply;
+        executor.shutdownNow();
 
-        ply += ((int) plyBonus);
+        if (helperExecutor != null) {
+            helperExecutor.shutdownNow();
+        }
 
-        return actualPly;
+        resetAll();
+        closeExperience();
     }
 
+    // endregion
+
     private void resetForMove() {
         searchMoves.clear();
+
+        for (final Search search : searches) {
+            search.reset();
+        }
+
         metrics.resetRound();
     }
 
     private void resetAll() {
         resetForMove();
+
+        for (final Search search : searches) {
+            search.clear();
+        }
+
         metrics.resetAll();
         board = null;
-        plyBonus = 0.0;
         transpositionTable.clear();
         previousPv = null;
 
@@ -259,13 +580,48 @@ public class KairukuEngine extends SimpleUciEngine {
         movesSinceHalfmoveReset.clear();
     }
 
+    /**
+     * Records the transposition table entries along the principal variation of the board down to the experience depth,
+     * called after the move was sent
+     */
+    private void recordExperience(final Bitboard board, final long[] pv) {
+        if (experience == null) {
+            return;
+        }
+
+        int made = 0;
+
+        while (true) {
+            final long zobristHash = board.zobristHash();
+            final long ttEntry = transpositionTable.probe(zobristHash);
+
+            if (ttEntry == TranspositionTable.NO_ENTRY || TranspositionTable.depth(ttEntry) < experienceDepth) {
+                break;
+            }
+
+            experience.record(zobristHash, ttEntry);
+
+            if (made >= pv.length || pv[made] == MovePicker.NO_MOVE) {
+                break;
+            }
+
+            board.make(pv[made]);
+            made++;
+        }
+
+        for (int i = made - 1; i >= 0; i--) {
+            board.unmake(pv[i]);
+        }
+    }
+
     // region Search
 
-    private ValuedMove play() {
+    private SearchResult play() {
         movesSinceHalfmoveReset.add(board.zobristHash());
+        transpositionTable.newSearch();
 
         final StopWatch stopwatch = StopWatch.createStarted();
-        final ValuedMove result = negamax(ply, SimpleHeuristic.LOSS, SimpleHeuristic.WIN, selfColor);
+        final SearchResult result = searchAllThreads();
         stopwatch.stop();
 
         final Duration duration = Duration.ofNanos(stopwatch.getNanoTime());
@@ -274,7 +630,7 @@ public class KairukuEngine extends SimpleUciEngine {
 
         log.info(infoString(result));
 
-        final Bitboard.BBMove theMove = result.getMove();
+        final long theMove = result.getMove();
         board.make(theMove);
         movesSinceHalfmoveReset.add(board.zobristHash());
         board.unmake(theMove);
@@ -282,196 +638,129 @@ public class KairukuEngine extends SimpleUciEngine {
         return result;
     }
 
-    private ValuedMove negamax(final int depth, final int alphaOriginal, final int betaOriginal, final Color currentColor) {
-        metrics.incrementNegamaxNodes();
-
-        final long zobristHash = board.zobristHash();
-
-        if (depth < ply && movesSinceHalfmoveReset.contains(zobristHash)) {
-            return new ValuedMove(SimpleHeuristic.DRAW, null, null);
+    /**
+     * @return the value in centipawns, or the moves to mate for checkmate values
+     */
+    private Score score(final int value) {
+        if (SimpleHeuristic.isCheckmateValue(value)) {
+            return new Score(null, SimpleHeuristic.movesToMate(value, selfColor, board.getFullmoveClock()), null);
         }
 
-        final TranspositionTable.Entry ttEntry = transpositionTable.get(zobristHash);
-
-        int alpha = alphaOriginal;
-        int beta = betaOriginal;
-
-        if (ttEntry != null) {
-            if (ttEntry.getDepth() >= depth) {
-                metrics.incrementTableHits();
-
-                switch (ttEntry.getNodeType()) {
-                    case LOWERBOUND:
-                        alpha = Math.max(alpha, ttEntry.getValue());
-                        break;
-                    case UPPERBOUND:
-                        beta = Math.min(beta, ttEntry.getValue());
-                }
+        return new Score(value, null, null);
+    }
 
-                if (ttEntry.getNodeType() == TranspositionTable.NodeType.EXACT || alpha >= beta) {
-                    return ttEntry.getValuedMove();
-                }
+    /**
+     * Lazy SMP: the helper searches run the same search on their own board copies, sharing only the transposition
+     * table. Every other helper searches one ply deeper so the helpers fill the table with entries the main search
+     * can use. Once the main search is done, the helpers are aborted and all searches vote on the move with the result
+     * of their last completed iteration.
+     */
+    private SearchResult searchAllThreads() {
+        final List<Future<SearchResult>> helpers = new ArrayList<>(searches.length - 1);
+
+        // the searches were reset after the go command, a stop in between has to be repeated
+        if (stopRequested) {
+            for (final Search search : searches) {
+                search.abort();
             }
         }
 
-        final List<Bitboard.BBMove> pseudoLegalMoves = board.generatePseudoLegalMoves();
-
-        if (depth == 0) {
-            final boolean legalMovesRemaining = Bitboard.hasAnyLegalMoves(board, pseudoLegalMoves);
-
-            if (legalMovesRemaining && Bitboard.hasAnyAttackMoves(pseudoLegalMoves)) {
-                return quiescenceSearch(quiescencePly, alpha, beta, currentColor);
-            }
-
-            final int value = currentColor.getHeuristicFactor() * heuristic.evaluate(board, legalMovesRemaining);
+        for (int i = 1; i < searches.length; i++) {
+            final Search helper = searches[i];
+            final SearchLimits helperLimits = limits.helper(limits.getDepth() + i % 2);
 
-            return new ValuedMove(value, null, null);
+            helpers.add(helperExecutor.submit(() -> helper.search(board, selfColor, transpositionTable, movesSinceHalfmoveReset, searchMoves, previousPv, helperLimits)));
         }
 
-        if (previousPv != null) {
-            final int i = 2 + ply - depth;
+        final SearchResult[] results = new SearchResult[searches.length];
+        results[0] = searches[0].search(board, selfColor, transpositionTable, movesSinceHalfmoveReset, searchMoves, previousPv, limits);
+        metrics.add(searches[0].getMetrics());
 
-            if (i < previousPv.length) {
-                // set the previous PV move as the first move to be searched
-                defaultMoveOrder.sort(pseudoLegalMoves, previousPv[i]);
-            } else {
-                defaultMoveOrder.sort(pseudoLegalMoves);
-            }
-        } else {
-            defaultMoveOrder.sort(pseudoLegalMoves);
+        for (int i = 1; i < searches.length; i++) {
+            searches[i].abort();
         }
 
-        int value = SimpleHeuristic.LOSS;
-        ValuedMove bestChild = null;
-        Bitboard.BBMove bestMove = null;
-
-        boolean legalMovesEncountered = false;
-
-        for (final Bitboard.BBMove current : pseudoLegalMoves) {
-            if (depth == ply && !searchMoves.isEmpty() && !searchMoves.contains(current.asUciMove())) {
-                continue;
-            }
-
-            board.make(current);
-
-            if (board.isInvalidPosition()) {
-                board.unmake(current);
-                continue;
-            }
-
-            legalMovesEncountered = true;
-
-            final ValuedMove child = negamax(depth - 1, -beta, -alpha, currentColor.opposite());
-
-            final int childValue = -child.getValue();
-
-            if (childValue > value) {
-                value = childValue;
-                bestMove = current;
-                bestChild = child;
-            }
-
-            alpha = Math.max(alpha, value);
-
-            board.unmake(current);
-
-            if (alpha >= beta) {
-                break;
+        for (int i = 1; i < searches.length; i++) {
+            try {
+                results[i] = helpers.get(i - 1).get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (final ExecutionException e) {
+                log.error("unexpected error in helper search", e.getCause());
             }
-        }
 
-        if (!legalMovesEncountered) {
-            return new ValuedMove(currentColor.getHeuristicFactor() * heuristic.evaluate(board, false), null, null);
+            metrics.add(searches[i].getMetrics());
         }
 
-        final ValuedMove result = new ValuedMove(value, bestMove, bestChild);
-
-        //Don't store game ending moves to still get the quickest mate
-        if (!SimpleHeuristic.isCheckmateValue(value)) {
-            final TranspositionTable.NodeType type;
+        final int[] depths = new int[searches.length];
 
-            if (value <= alphaOriginal) {
-                type = TranspositionTable.NodeType.UPPERBOUND;
-            } else if (value >= beta) {
-                type = TranspositionTable.NodeType.LOWERBOUND;
-            } else {
-                type = TranspositionTable.NodeType.EXACT;
-            }
-
-            transpositionTable.put(zobristHash, new TranspositionTable.Entry(result, depth, value, type));
+        for (int i = 0; i < searches.length; i++) {
+            depths[i] = searches[i].getCompletedDepth();
         }
 
-        return result;
-    }
+        final int best = vote(results, depths);
 
-    private ValuedMove quiescenceSearch(final int depth, final int initialAlpha, final int initialBeta, final Color currentColor) {
-        final List<Bitboard.BBMove> pseudoLegalAttackMoves = board.generatePseudoLegalAttackMoves();
+        completedDepth = depths[best];
 
-        // Pretend the game is not over for speed?!
-        final int standingPat = currentColor.getHeuristicFactor() * heuristic.evaluate(board, true);
+        return results[best];
+    }
 
-        if (standingPat >= initialBeta) {
-            metrics.quiescenceTermination(quiescencePly - depth);
-            return new ValuedMove(initialBeta, null, null);
+    /**
+     * Every search votes for its move, weighted by its completed depth and by how much better its value is than the
+     * worst value of all searches. Returns the index of the deepest result for the move with the most votes, preferring
+     * the main search.
+     */
+    private static int vote(final SearchResult[] results, final int[] depths) {
+        if (results.length == 1) {
+            return 0;
         }
 
-        int alpha = Math.max(initialAlpha, standingPat);
+        int minValue = Integer.MAX_VALUE;
 
-        if (depth == 0) {
-            metrics.quiescenceTermination(quiescencePly);
-
-            return new ValuedMove(alpha, null, null);
+        for (final SearchResult result : results) {
+            if (result != null) {
+                minValue = Math.min(minValue, result.getValue());
+            }
         }
 
-        quiescenceSearchMoveOrder.sort(pseudoLegalAttackMoves);
-
-        Bitboard.BBMove bestMove = null;
-        ValuedMove bestChild = null;
+        final Map<Long, Long> votes = new HashMap<>();
 
-        for (final Bitboard.BBMove current : pseudoLegalAttackMoves) {
-            board.make(current);
-
-            if (board.isInvalidPosition()) {
-                board.unmake(current);
-                continue;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) {
+                votes.merge(results[i].getMove(), ((long) results[i].getValue() - minValue + VOTE_BASE) * depths[i], Long::sum);
             }
+        }
 
-            final ValuedMove child = quiescenceSearch(depth - 1, -initialBeta, -alpha, currentColor.opposite());
-            final int value = -child.getValue();
-
-            metrics.incrementQuiescenceNodes();
-
-            board.unmake(current);
+        int best = 0;
 
-            if (value >= initialBeta) {
-                metrics.quiescenceTermination(quiescencePly - depth);
-                return new ValuedMove(initialBeta, current, child);
+        for (int i = 1; i < results.length; i++) {
+            if (results[i] == null) {
+                continue;
             }
 
-            if (value > alpha) {
-                alpha = value;
+            final long vote = votes.get(results[i].getMove());
+            final long bestVote = votes.get(results[best].getMove());
 
-                bestMove = current;
-                bestChild = child;
+            if (vote > bestVote || vote == bestVote && results[i].getMove() == results[best].getMove() && depths[i] > depths[best]) {
+                best = i;
             }
         }
 
-        metrics.quiescenceTermination(quiescencePly - depth);
-        return new ValuedMove(alpha, bestMove, bestChild);
+        return best;
     }
 
     // endregion search
 
     // region String generation
 
-    private String infoString(final ValuedMove play) {
+    private String infoString(final SearchResult play) {
         final StringJoiner lineJoiner = new StringJoiner("\n");
         lineJoiner.add(board.toString());
 
         lineJoiner.add("╔═══════════════════════════════════╗");
 
         addToJoiner(lineJoiner, "color", selfColor);
-        addToJoiner(lineJoiner, "best move", play.getMove().asUciMove());
+        addToJoiner(lineJoiner, "best move", Bitboard.BBMove.asUciMove(play.getMove()));
         addToJoiner(lineJoiner, "duration", metrics.getLastDuration());
         lineJoiner.add("╠═══════════════════════════════════╣");
         addToJoiner(lineJoiner, "nodes (total)", metrics.getLastNodes());
@@ -482,8 +771,10 @@ public class KairukuEngine extends SimpleUciEngine {
                 .getLastNodes()));
         addToJoiner(lineJoiner, "average Q depth", DECIMAL_FORMAT.format(metrics.getLastAverageQuiescenceTerminationDepth()));
         lineJoiner.add("╠═══════════════════════════════════╣");
+        addToJoiner(lineJoiner, "first move cutoffs", DECIMAL_FORMAT.format(metrics.getLastFirstMoveCutoffRate()));
+        lineJoiner.add("╠═══════════════════════════════════╣");
         addToJoiner(lineJoiner, "ttable hits", metrics.getLastTableHits());
-        addToJoiner(lineJoiner, "table load factor", DECIMAL_FORMAT.format(transpositionTable.load()));
+        addToJoiner(lineJoiner, "hashfull", transpositionTable.hashFull());
         lineJoiner.add("╠═══════════════════════════════════╣");
         addToJoiner(lineJoiner, "nps last", metrics.getLastNps());
         addToJoiner(lineJoiner, "nps avg", metrics.getTotalNps());
@@ -0,0 +1,80 @@
+package net.marvk.chess.kairukuengine;
+
+/**
+ * Precomputed late move reductions. A quiet move that comes late in the move order is searched
+ * {@code base + ln(depth) * ln(moveIndex) / divisor} plies shallower, with base and divisor given in hundredths of a
+ * ply. The first moves of a node and nodes close to the horizon are never reduced. Moves with a history of at least
+ * {@value #HISTORY_ADJUSTMENT_THRESHOLD} are reduced one ply less and moves with a history of at most minus that one
+ * ply more.
+ */
+final class LateMoveReductions {
+    static final int DEFAULT_BASE = 75;
+    static final int DEFAULT_DIVISOR = 225;
+    static final int DEFAULT_MIN_DEPTH = 3;
+    static final int DEFAULT_FULL_DEPTH_MOVES = 3;
+
+    static final int HISTORY_ADJUSTMENT_THRESHOLD = QuietHistory.MAX_HISTORY / 2;
+
+    // larger depths and move indices share the last row and column of the table
+    private static final int TABLE_SIZE = 64;
+
+    private final int[][] reductions = new int[TABLE_SIZE][TABLE_SIZE];
+    private final int minDepth;
+    private final int fullDepthMoves;
+
+    /**
+     * @param base           the constant part of the reduction in hundredths of a ply
+     * @param divisor        divides the logarithmic part of the reduction, in hundredths
+     * @param minDepth       the minimum remaining depth of a node whose moves are reduced
+     * @param fullDepthMoves the number of moves of a node that are never reduced
+     */
+    LateMoveReductions(final int base, final int divisor, final int minDepth, final int fullDepthMoves) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException("Divisor must be positive, was " + divisor);
+        }
+
+        this.minDepth = minDepth;
+        this.fullDepthMoves = fullDepthMoves;
+
+        for (int depth = 1; depth < TABLE_SIZE; depth++) {
+            for (int moveIndex = 1; moveIndex < TABLE_SIZE; moveIndex++) {
+                final double reduction = base / 100.0 + Math.log(depth) * Math.log(moveIndex) / (divisor / 100.0);
+
+                reductions[depth][moveIndex] = Math.max(0, (int) reduction);
+            }
+        }
+    }
+
+    static LateMoveReductions defaults() {
+        return new LateMoveReductions(DEFAULT_BASE, DEFAULT_DIVISOR, DEFAULT_MIN_DEPTH, DEFAULT_FULL_DEPTH_MOVES);
+    }
+
+    /**
+     * @param depth     the remaining depth of the node
+     * @param moveIndex the index of the move in the move order of the node, starting at {@code 0}
+     * @return the reduction in plies, which always leaves the move at least one ply to search
+     */
+    int reduction(final int depth, final int moveIndex) {
+        return reduction(depth, moveIndex, 0);
+    }
+
+    /**
+     * @param history the {@link QuietHistory} score of the move
+     * @see #reduction(int, int)
+     */
+    int reduction(final int depth, final int moveIndex, final int history) {
+        if (depth < minDepth || moveIndex < fullDepthMoves) {
+            return 0;
+        }
+
+        int reduction = reductions[Math.min(depth, TABLE_SIZE - 1)][Math.min(moveIndex, TABLE_SIZE - 1)];
+
+        if (history >= HISTORY_ADJUSTMENT_THRESHOLD) {
+            reduction--;
+        } else if (history <= -HISTORY_ADJUSTMENT_THRESHOLD) {
+            reduction++;
+        }
+
+        return Math.max(0, Math.min(reduction, depth - 2));
+    }
+}
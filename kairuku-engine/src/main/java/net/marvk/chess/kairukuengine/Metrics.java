@@ -4,22 +4,28 @@ import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 public class Metrics {
-    private int lastNegamaxNodes;
-    private int lastQuiescenceNodes;
+    private long lastNegamaxNodes;
+    private long lastQuiescenceNodes;
     private Duration lastDuration;
-    private int lastTableHits;
+    private long lastTableHits;
 
     private long lastQuiescenceTerminationSum;
     private long lastQuiescenceTerminationCount;
 
-    private int totalNegamaxNodes;
-    private int totalQuiescenceNodes;
+    private long lastCutoffs;
+    private long lastFirstMoveCutoffs;
+
+    private long totalNegamaxNodes;
+    private long totalQuiescenceNodes;
     private Duration totalDuration;
-    private int totalTableHits;
+    private long totalTableHits;
 
     private long totalQuiescenceTerminationSum;
     private long totalQuiescenceTerminationCount;
 
+    private long totalCutoffs;
+    private long totalFirstMoveCutoffs;
+
     Metrics() {
         resetAll();
     }
@@ -44,6 +50,43 @@ public class Metrics {
         totalTableHits++;
     }
 
+    /**
+     * Counts a beta cutoff of a negamax node
+     *
+     * @param firstMove whether the first move searched caused the cutoff
+     */
+    void betaCutoff(final boolean firstMove) {
+        lastCutoffs++;
+        totalCutoffs++;
+
+        if (firstMove) {
+            lastFirstMoveCutoffs++;
+            totalFirstMoveCutoffs++;
+        }
+    }
+
+    /**
+     * Adds the counters of the last round of the other metrics, used to sum the searches of all threads
+     */
+    void add(final Metrics other) {
+        lastNegamaxNodes += other.lastNegamaxNodes;
+        totalNegamaxNodes += other.lastNegamaxNodes;
+        lastQuiescenceNodes += other.lastQuiescenceNodes;
+        totalQuiescenceNodes += other.lastQuiescenceNodes;
+        lastTableHits += other.lastTableHits;
+        totalTableHits += other.lastTableHits;
+
+        lastQuiescenceTerminationSum += other.lastQuiescenceTerminationSum;
+        lastQuiescenceTerminationCount += other.lastQuiescenceTerminationCount;
+        totalQuiescenceTerminationSum += other.lastQuiescenceTerminationSum;
+        totalQuiescenceTerminationCount += other.lastQuiescenceTerminationCount;
+
+        lastCutoffs += other.lastCutoffs;
+        totalCutoffs += other.lastCutoffs;
+        lastFirstMoveCutoffs += other.lastFirstMoveCutoffs;
+        totalFirstMoveCutoffs += other.lastFirstMoveCutoffs;
+    }
+
     void quiescenceTermination(final int depth) {
         lastQuiescenceTerminationSum += depth;
         lastQuiescenceTerminationCount++;
@@ -52,15 +95,15 @@ public class Metrics {
         totalQuiescenceTerminationCount++;
     }
 
-    public int getLastNodes() {
+    public long getLastNodes() {
         return lastNegamaxNodes + lastQuiescenceNodes;
     }
 
-    public int getLastNegamaxNodes() {
+    public long getLastNegamaxNodes() {
         return lastNegamaxNodes;
     }
 
-    public int getLastQuiescenceNodes() {
+    public long getLastQuiescenceNodes() {
         return lastQuiescenceNodes;
     }
 
@@ -68,11 +111,11 @@ public class Metrics {
         return lastDuration;
     }
 
-    public int getLastTableHits() {
+    public long getLastTableHits() {
         return lastTableHits;
     }
 
-    public int getLastNps() {
+    public long getLastNps() {
         return nodesPerSecond(lastDuration, lastNegamaxNodes + lastQuiescenceNodes);
     }
 
@@ -84,15 +127,30 @@ public class Metrics {
         return ((double) lastQuiescenceTerminationSum) / lastQuiescenceTerminationCount;
     }
 
-    public int getTotalNodes() {
+    public long getLastCutoffs() {
+        return lastCutoffs;
+    }
+
+    public long getLastFirstMoveCutoffs() {
+        return lastFirstMoveCutoffs;
+    }
+
+    /**
+     * @return the share of beta cutoffs caused by the first move searched, a measure of the move ordering
+     */
+    public double getLastFirstMoveCutoffRate() {
+        return (double) lastFirstMoveCutoffs / lastCutoffs;
+    }
+
+    public long getTotalNodes() {
         return totalNegamaxNodes + totalQuiescenceNodes;
     }
 
-    public int getTotalNegamaxNodes() {
+    public long getTotalNegamaxNodes() {
         return totalNegamaxNodes;
     }
 
-    public int getTotalQuiescenceNodes() {
+    public long getTotalQuiescenceNodes() {
         return totalQuiescenceNodes;
     }
 
@@ -100,42 +158,50 @@ public class Metrics {
         return totalDuration;
     }
 
-    public int getTotalTableHits() {
+    public long getTotalTableHits() {
         return totalTableHits;
     }
 
-    public int getTotalNps() {
+    public long getTotalNps() {
         return nodesPerSecond(totalDuration, totalNegamaxNodes + totalQuiescenceNodes);
     }
 
-    public int getTotalTableHitRate() {
-        return totalTableHits / totalNegamaxNodes;
+    public double getTotalTableHitRate() {
+        return (double) totalTableHits / totalNegamaxNodes;
     }
 
     public double getTotalAverageQuiescenceTerminationDepth() {
         return ((double) totalQuiescenceTerminationSum) / totalQuiescenceTerminationCount;
     }
 
+    public double getTotalFirstMoveCutoffRate() {
+        return (double) totalFirstMoveCutoffs / totalCutoffs;
+    }
+
     void resetRound() {
-        lastNegamaxNodes = 0;
-        lastQuiescenceNodes = 0;
+        lastNegamaxNodes = 0L;
+        lastQuiescenceNodes = 0L;
         lastDuration = Duration.ZERO;
-        lastTableHits = 0;
+        lastTableHits = 0L;
         lastQuiescenceTerminationSum = 0L;
         lastQuiescenceTerminationCount = 0L;
+        lastCutoffs = 0L;
+        lastFirstMoveCutoffs = 0L;
     }
 
     void resetAll() {
         resetRound();
-        totalNegamaxNodes = 0;
-        totalQuiescenceNodes = 0;
+        totalNegamaxNodes = 0L;
+        totalQuiescenceNodes = 0L;
         totalDuration = Duration.ZERO;
-        totalTableHits = 0;
+        totalTableHits = 0L;
         totalQuiescenceTerminationSum = 0L;
         totalQuiescenceTerminationCount = 0L;
+        totalCutoffs = 0L;
+        totalFirstMoveCutoffs = 0L;
     }
 
-    private static int nodesPerSecond(final Duration duration, final int nodes) {
-        return (int) Math.round(((double) nodes / duration.toNanos()) * TimeUnit.SECONDS.toNanos(1));
+    private static long nodesPerSecond(final Duration duration, final long nodes) {
+        return Math.round(((double) nodes / duration.toNanos()) * TimeUnit.SECONDS.toNanos(1));
     }
 }
@@ -0,0 +1,188 @@
+package net.marvk.chess.kairukuengine;
+
+import net.marvk.chess.core.Color;
+import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.core.bitboards.MoveList;
+
+/**
+ * Yields the legal moves of a position in stages, most nodes cut off after the first few moves so later stages are
+ * often never generated:
+ * <ol>
+ *     <li>the hash move</li>
+ *     <li>attack moves and promotions ordered by MVV-LVA, counting the material a promotion gains</li>
+ *     <li>killer moves</li>
+ *     <li>quiet moves, neither attacks nor promotions, ordered by piece square difference, or with a {@link QuietHistory} by the countermove first and
+ *     then by history score, piece square difference breaking ties</li>
+ * </ol>
+ * Hash and killer moves are stored as {@link Bitboard.BBMove#key(long) keys} and looked up in the current position,
+ * which also rejects moves that are not legal here.
+ */
+public class MovePicker {
+    public static final long NO_MOVE = 0L;
+    public static final int NO_KEY = 0;
+
+    private enum Stage {
+        HASH_MOVE,
+        GENERATE_TACTICALS,
+        TACTICALS,
+        FIRST_KILLER,
+        SECOND_KILLER,
+        GENERATE_QUIETS,
+        QUIETS,
+        DONE
+    }
+
+    private final MoveList moves = new MoveList();
+
+    private Bitboard board;
+    private Stage stage;
+    private int index;
+
+    private int hashMoveKey;
+    private int firstKillerKey;
+    private int secondKillerKey;
+
+    private QuietHistory history;
+    private Color color;
+    private int counterMoveKey;
+
+    public void reset(final Bitboard board, final int hashMoveKey, final int firstKillerKey, final int secondKillerKey) {
+        reset(board, hashMoveKey, firstKillerKey, secondKillerKey, null, NO_KEY);
+    }
+
+    /**
+     * @param history        orders the quiet moves of the active player, or {@code null} to order them by piece square
+     *                       difference only
+     * @param counterMoveKey the key of the countermove to the previous move or {@link #NO_KEY}
+     */
+    void reset(
+            final Bitboard board,
+            final int hashMoveKey,
+            final int firstKillerKey,
+            final int secondKillerKey,
+            final QuietHistory history,
+            final int counterMoveKey
+    ) {
+        this.history = history;
+        this.color = board.getActivePlayer();
+        this.counterMoveKey = counterMoveKey;
+
+        this.board = board;
+        this.hashMoveKey = hashMoveKey;
+        this.firstKillerKey = firstKillerKey;
+        this.secondKillerKey = secondKillerKey == firstKillerKey ? NO_KEY : secondKillerKey;
+
+        this.stage = Stage.HASH_MOVE;
+        this.index = 0;
+    }
+
+    /**
+     * @return the next legal move or {@link #NO_MOVE} if all moves have been picked
+     */
+    public long next() {
+        while (true) {
+            switch (stage) {
+                case HASH_MOVE: {
+                    stage = Stage.GENERATE_TACTICALS;
+
+                    final long move = find(hashMoveKey);
+
+                    if (move != NO_MOVE) {
+                        return move;
+                    }
+
+                    break;
+                }
+                case GENERATE_TACTICALS:
+                    board.generateLegalTacticalMoves(moves);
+                    moves.sortByMvvLva();
+                    index = 0;
+                    stage = Stage.TACTICALS;
+                    break;
+                case TACTICALS:
+                    while (index < moves.size()) {
+                        final long move = moves.get(index++);
+
+                        if (Bitboard.BBMove.key(move) != hashMoveKey) {
+                            return move;
+                        }
+                    }
+
+                    stage = Stage.FIRST_KILLER;
+                    break;
+                case FIRST_KILLER: {
+                    stage = Stage.SECOND_KILLER;
+
+                    final long move = findKiller(firstKillerKey);
+
+                    if (move != NO_MOVE) {
+                        return move;
+                    }
+
+                    break;
+                }
+                case SECOND_KILLER: {
+                    stage = Stage.GENERATE_QUIETS;
+
+                    final long move = findKiller(secondKillerKey);
+
+                    if (move != NO_MOVE) {
+                        return move;
+                    }
+
+                    break;
+                }
+                case GENERATE_QUIETS:
+                    board.generateLegalQuietMoves(moves);
+
+                    if (history != null) {
+                        for (int i = 0; i < moves.size(); i++) {
+                            moves.addMoveOrderValue(i, history.score(color, moves.get(i), counterMoveKey));
+                        }
+                    }
+
+                    moves.sortByMvvLvaSquarePieceDifference();
+                    index = 0;
+                    stage = Stage.QUIETS;
+                    break;
+                case QUIETS:
+                    while (index < moves.size()) {
+                        final long move = moves.get(index++);
+                        final int key = Bitboard.BBMove.key(move);
+
+                        if (key != hashMoveKey && key != firstKillerKey && key != secondKillerKey) {
+                            return move;
+                        }
+                    }
+
+                    stage = Stage.DONE;
+                    break;
+                case DONE:
+                    return NO_MOVE;
+            }
+        }
+    }
+
+    private long findKiller(final int key) {
+        if (key == hashMoveKey) {
+            return NO_MOVE;
+        }
+
+        final long move = find(key);
+
+        // attack moves and promotions were already picked in the tactical stage
+        if (Bitboard.BBMove.isAttack(move) || Bitboard.BBMove.isPromotion(move)) {
+            return NO_MOVE;
+        }
+
+        return move;
+    }
+
+    private long find(final int key) {
+        if (key == NO_KEY) {
+            return NO_MOVE;
+        }
+
+        return board.findLegalMove(key);
+    }
+}
@@ -0,0 +1,122 @@
+package net.marvk.chess.kairukuengine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Transposition table backed by direct or memory mapped byte buffers outside the Java heap. A buffer is limited to
+ * {@code Integer.MAX_VALUE} bytes, so the slots are split into chunks of {@value #CHUNK_BYTES} bytes. Entries are aligned
+ * to {@value TranspositionTable#ENTRY_BYTES} bytes and never span two chunks, each half is read and written with a single
+ * absolute aligned {@code long} access.
+ *
+ * <p>The mapped storage maps a temporary file that is deleted as soon as it is mapped where the platform allows it, the
+ * mapping itself stays valid until the buffers are collected.</p>
+ */
+final class OffHeapTranspositionTable extends TranspositionTable {
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_BYTES = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_BYTES - 1;
+
+    private static final int ENTRY_SHIFT = Integer.numberOfTrailingZeros(ENTRY_BYTES);
+
+    private static final int CLEAR_BLOCK_BYTES = 64 * 1024;
+
+    private final ByteBuffer[] chunks;
+
+    OffHeapTranspositionTable(final int megabytes, final boolean mapped) {
+        super(megabytes, MAX_MEGABYTES);
+
+        final long bytes = capacity() * ENTRY_BYTES;
+
+        this.chunks = mapped ? map(bytes) : allocate(bytes);
+    }
+
+    private static ByteBuffer[] allocate(final long bytes) {
+        final ByteBuffer[] result = new ByteBuffer[chunkCount(bytes)];
+
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ByteBuffer.allocateDirect(chunkBytes(bytes, i)).order(ByteOrder.nativeOrder());
+        }
+
+        return result;
+    }
+
+    private static ByteBuffer[] map(final long bytes) {
+        final ByteBuffer[] result = new ByteBuffer[chunkCount(bytes)];
+
+        try {
+            final Path file = Files.createTempFile("kairuku-tt", ".bin");
+
+            try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * CHUNK_BYTES, chunkBytes(bytes, i))
+                                       .order(ByteOrder.nativeOrder());
+                }
+            } finally {
+                try {
+                    Files.delete(file);
+                } catch (final IOException e) {
+                    // mapped files can not be deleted on some platforms
+                    file.toFile().deleteOnExit();
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to map transposition table of " + bytes + " bytes", e);
+        }
+
+        return result;
+    }
+
+    private static int chunkCount(final long bytes) {
+        return (int) ((bytes + CHUNK_MASK) >>> CHUNK_SHIFT);
+    }
+
+    private static int chunkBytes(final long bytes, final int chunk) {
+        return (int) Math.min(CHUNK_BYTES, bytes - chunk * CHUNK_BYTES);
+    }
+
+    @Override
+    long readKey(final long entry) {
+        final long offset = entry << ENTRY_SHIFT;
+
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) (offset & CHUNK_MASK));
+    }
+
+    @Override
+    long readData(final long entry) {
+        final long offset = entry << ENTRY_SHIFT;
+
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) (offset & CHUNK_MASK) + Long.BYTES);
+    }
+
+    @Override
+    void write(final long entry, final long key, final long data) {
+        final long offset = entry << ENTRY_SHIFT;
+        final ByteBuffer chunk = chunks[(int) (offset >>> CHUNK_SHIFT)];
+        final int index = (int) (offset & CHUNK_MASK);
+
+        chunk.putLong(index, key);
+        chunk.putLong(index + Long.BYTES, data);
+    }
+
+    @Override
+    void clearEntries() {
+        final ByteBuffer zeros = ByteBuffer.allocateDirect(CLEAR_BLOCK_BYTES);
+
+        for (final ByteBuffer chunk : chunks) {
+            final ByteBuffer target = chunk.duplicate();
+            target.clear();
+
+            while (target.hasRemaining()) {
+                zeros.clear().limit(Math.min(CLEAR_BLOCK_BYTES, target.remaining()));
+                target.put(zeros);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package net.marvk.chess.kairukuengine;
+
+import net.marvk.chess.core.Color;
+import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.core.bitboards.MoveConstants;
+
+import java.util.Arrays;
+
+/**
+ * Search state that orders quiet moves, owned by one search thread. The butterfly history scores every
+ * {@code [color][from][to]} by how often it caused beta cutoffs, the countermove table remembers the quiet move that
+ * last refuted each {@code [color][from][to]} of the opponent.
+ *
+ * <p>History updates use gravity: a bonus moves the score towards {@value #MAX_HISTORY} by a share proportional to the
+ * distance, so scores stay bounded and recent cutoffs outweigh old ones.</p>
+ */
+final class QuietHistory {
+    static final int MAX_HISTORY = 1 << 14;
+
+    /**
+     * Added to the score of the countermove, so it is picked before every other quiet move
+     */
+    static final int COUNTER_MOVE_BONUS = 2 * MAX_HISTORY;
+
+    private static final int MAX_BONUS = 1600;
+
+    private static final int SQUARES = 64;
+
+    private final int[] butterfly = new int[2 * SQUARES * SQUARES];
+    private final int[] counterMoves = new int[2 * SQUARES * SQUARES];
+
+    /**
+     * @return the ordering score of the quiet move for the color, including the countermove bonus
+     */
+    int score(final Color color, final long move, final int counterMoveKey) {
+        final int score = butterfly[index(color, move)];
+
+        return Bitboard.BBMove.key(move) == counterMoveKey ? score + COUNTER_MOVE_BONUS : score;
+    }
+
+    /**
+     * Rewards the quiet move that caused a beta cutoff and punishes the quiet moves searched before it
+     *
+     * @param quiets     the quiet moves searched before the cutoff
+     * @param quietCount the number of quiet moves searched before the cutoff
+     */
+    void cutoff(final Color color, final int depth, final long move, final long[] quiets, final int quietCount) {
+        final int bonus = Math.min(16 * depth * depth, MAX_BONUS);
+
+        update(index(color, move), bonus);
+
+        for (int i = 0; i < quietCount; i++) {
+            update(index(color, quiets[i]), -bonus);
+        }
+    }
+
+    /**
+     * @param previousMove the move of the opponent that led to the node or {@link MovePicker#NO_MOVE}
+     * @return the key of the countermove to the previous move or {@link MovePicker#NO_KEY}
+     */
+    int counterMove(final Color color, final long previousMove) {
+        if (previousMove == MovePicker.NO_MOVE) {
+            return MovePicker.NO_KEY;
+        }
+
+        return counterMoves[index(color, previousMove)];
+    }
+
+    void setCounterMove(final Color color, final long previousMove, final long move) {
+        if (previousMove != MovePicker.NO_MOVE) {
+            counterMoves[index(color, previousMove)] = Bitboard.BBMove.key(move);
+        }
+    }
+
+    /**
+     * Halves the history scores, so the next search starts with the trends of the previous one
+     */
+    void age() {
+        for (int i = 0; i < butterfly.length; i++) {
+            butterfly[i] /= 2;
+        }
+    }
+
+    void clear() {
+        Arrays.fill(butterfly, 0);
+        Arrays.fill(counterMoves, MovePicker.NO_KEY);
+    }
+
+    private void update(final int index, final int bonus) {
+        butterfly[index] += bonus - butterfly[index] * Math.abs(bonus) / MAX_HISTORY;
+    }
+
+    private static int index(final Color color, final long move) {
+        final int source = (int) ((move & MoveConstants.SOURCE_SQUARE_INDEX_MASK) >> MoveConstants.SOURCE_SQUARE_INDEX_SHIFT);
+        final int target = (int) ((move & MoveConstants.TARGET_SQUARE_INDEX_MASK) >> MoveConstants.TARGET_SQUARE_INDEX_SHIFT);
+
+        return (color.ordinal() * SQUARES + source) * SQUARES + target;
+    }
+}
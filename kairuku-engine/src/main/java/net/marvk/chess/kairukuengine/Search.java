@@ -0,0 +1,823 @@
+package net.marvk.chess.kairukuengine;
+
+import net.marvk.chess.core.Color;
+import net.marvk.chess.core.UciMove;
+import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.core.bitboards.MoveConstants;
+import net.marvk.chess.core.bitboards.MoveList;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * The iterative deepening negamax search of one thread. Each search owns its copy of the board, its move buffers, move
+ * pickers, killer moves and node counters, everything else is shared read only between the threads of a search except
+ * for the transposition table, which tolerates concurrent access.
+ *
+ * <p>Every iteration searches the root moves in the order of the previous iteration's values, ties broken by the
+ * number of nodes their subtrees took, with the transposition table move in front. The principal variation of the
+ * previous iteration orders the moves along it, the first iteration uses the principal variation of the previous
+ * search instead.</p>
+ *
+ * <p>Principal variation search: the first move of a node is searched with the full window, every other move with a
+ * null window around alpha that only proves it is not better, and is searched again with the full window if it is.
+ * All nodes fail soft, values outside the window are bounds that are as tight as the search could prove.</p>
+ *
+ * <p>Null move pruning: if passing the turn to the opponent still fails high in a reduced search, a real move is
+ * assumed to do so too. It is skipped when in check, in principal variation nodes, directly after another null move
+ * and for a side with only pawns left, where zugzwang is common. Deep cutoffs are verified with a reduced search.</p>
+ *
+ * <p>Late move reductions: quiet moves late in the move order of a node are first searched with a null window at a
+ * depth reduced by {@link LateMoveReductions}, and only searched at full depth if that beats alpha. Captures,
+ * promotions, checks, moves out of check, killer moves and the hash move are never reduced.</p>
+ *
+ * <p>Quiet moves are ordered by the {@link QuietHistory} of this search: the countermove to the opponent's previous
+ * move first, then by history score. A quiet move that cuts off gains history, the quiet moves searched before it lose
+ * history, and it becomes the killer move of its height and the countermove to the previous move.</p>
+ *
+ * <p>The nodes return their value only, the principal variation is collected in a triangular table: the row of a node
+ * holds its best move followed by the row of the child that move led to, so the row of the root is the principal
+ * variation once an iteration completes.</p>
+ */
+final class Search {
+    /**
+     * Returned by every node once the search is aborted, never stored
+     */
+    private static final int ABORTED = 0;
+
+    /**
+     * Null moves are only tried this many plies or more from the horizon
+     */
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    /**
+     * The null move search is reduced by {@value #NULL_MOVE_REDUCTION} plies, and by one more from this depth on
+     */
+    private static final int NULL_MOVE_DEEP_REDUCTION_DEPTH = 7;
+    private static final int NULL_MOVE_REDUCTION = 2;
+    /**
+     * From this depth on a null move cutoff is only taken if a reduced search without null moves confirms it
+     */
+    private static final int NULL_MOVE_VERIFICATION_DEPTH = 10;
+
+    private final MvvLvaMoveOrder quiescenceSearchMoveOrder = new MvvLvaMoveOrder();
+
+    private final Heuristic heuristic;
+
+    private LateMoveReductions lateMoveReductions;
+
+    private final Metrics metrics = new Metrics();
+
+    private final QuietHistory history = new QuietHistory();
+
+    private final int quiescencePly = Integer.MAX_VALUE;
+
+    private Bitboard board;
+    private TranspositionTable transpositionTable;
+    private Set<Long> movesSinceHalfmoveReset;
+
+    // the principal variation that orders the moves along it, starting at the given distance from the root
+    private long[] orderingPv;
+    private int orderingPvOffset;
+
+    private long[] rootMoves = new long[0];
+    private int rootMoveCount;
+    private int[] rootValues = new int[0];
+    private long[] rootNodes = new long[0];
+
+    private int completedDepth;
+
+    private volatile boolean aborted;
+
+    private SearchLimits limits;
+    private int nodesUntilPoll;
+    /**
+     * The nodes of this search already added to the node count of the limits
+     */
+    private long flushedNodes;
+
+    // one move buffer, move picker, pair of killer move keys, principal variation row, move made and buffer of searched
+    // quiet moves per distance from the root, reused across searches
+    private MoveList[] moveLists = new MoveList[0];
+    private MovePicker[] movePickers = new MovePicker[0];
+    private int[][] killers = new int[0][];
+    private long[] movesMade = new long[0];
+    private long[][] quietsSearched = new long[0][];
+    private long[][] pvTable = new long[0][];
+    private int[] pvLengths = new int[0];
+
+    Search(final Heuristic heuristic, final LateMoveReductions lateMoveReductions) {
+        this.heuristic = heuristic;
+        this.lateMoveReductions = lateMoveReductions;
+    }
+
+    /**
+     * Replaces the reductions, only between searches
+     */
+    void setLateMoveReductions(final LateMoveReductions lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+    }
+
+    /**
+     * Searches a copy of the root to depths one through the depth limit. The node limit and the hard deadline are
+     * polled by every node and abort the current iteration, the soft deadline and the mate limit are checked between
+     * iterations.
+     *
+     * @param movesSinceHalfmoveReset the positions that count as draws by repetition, not modified
+     * @param searchMoves             the root moves to consider or empty for all, not modified
+     * @param previousPv              the principal variation of the previous search to order moves by or {@code null}
+     * @return the result of the last completed iteration, or the first root move in move picker order if the search
+     * was aborted before the first iteration completed
+     */
+    SearchResult search(
+            final Bitboard root,
+            final Color color,
+            final TranspositionTable transpositionTable,
+            final Set<Long> movesSinceHalfmoveReset,
+            final Set<UciMove> searchMoves,
+            final long[] previousPv,
+            final SearchLimits limits
+    ) {
+        this.board = new Bitboard(root);
+        this.transpositionTable = transpositionTable;
+        this.movesSinceHalfmoveReset = movesSinceHalfmoveReset;
+        this.orderingPv = previousPv;
+        this.orderingPvOffset = 2;
+        this.completedDepth = 0;
+        this.limits = limits;
+        this.nodesUntilPoll = TimeManager.POLL_INTERVAL;
+        this.flushedNodes = 0L;
+
+        final int depth = limits.getDepth();
+        final TimeManager timeManager = limits.getTimeManager();
+
+        metrics.resetRound();
+
+        generateRootMoves(searchMoves);
+
+        if (rootMoveCount == 0) {
+            completedDepth = depth;
+
+            return new SearchResult(color.getHeuristicFactor() * heuristic.evaluate(board, false), new long[0]);
+        }
+
+        SearchResult result = null;
+
+        for (int iteration = 1; iteration <= depth; iteration++) {
+            final SearchResult iterationResult = searchRoot(iteration, color);
+
+            if (iterationResult == null) {
+                break;
+            }
+
+            result = iterationResult;
+            completedDepth = iteration;
+
+            orderingPv = result.getPrincipalVariation();
+            orderingPvOffset = 0;
+
+            if (timeManager != null && timeManager.iterationCompleted(result)) {
+                break;
+            }
+
+            if (mateFound(result.getValue(), color)) {
+                break;
+            }
+        }
+
+        if (result == null) {
+            return new SearchResult(0, new long[]{rootMoves[0]});
+        }
+
+        return result;
+    }
+
+    /**
+     * @return whether the value is a mate by the active player of the root within the mate limit
+     */
+    private boolean mateFound(final int value, final Color color) {
+        if (limits.getMate() == SearchLimits.NO_MATE_LIMIT) {
+            return false;
+        }
+
+        final int moves = SimpleHeuristic.movesToMate(value, color, board.getFullmoveClock());
+
+        return moves > 0 && moves <= limits.getMate();
+    }
+
+    /**
+     * @return the depth of the last completed iteration
+     */
+    int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Stops the search as soon as possible, the current iteration is discarded
+     */
+    void abort() {
+        aborted = true;
+    }
+
+    /**
+     * Clears the killer moves and the abort flag and ages the history
+     */
+    void reset() {
+        for (final int[] killerKeys : killers) {
+            Arrays.fill(killerKeys, MovePicker.NO_KEY);
+        }
+
+        history.age();
+
+        aborted = false;
+    }
+
+    /**
+     * Resets like {@link #reset()} and forgets the history, for a new game
+     */
+    void clear() {
+        reset();
+        history.clear();
+    }
+
+    QuietHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * @return the node counters of the last search
+     */
+    Metrics getMetrics() {
+        return metrics;
+    }
+
+    private void generateRootMoves(final Set<UciMove> searchMoves) {
+        final MovePicker movePicker = movePicker(0);
+
+        movePicker.reset(board, hashMoveKey(transpositionTable.probe(board.zobristHash()), 0), MovePicker.NO_KEY, MovePicker.NO_KEY);
+        rootMoveCount = 0;
+
+        long current;
+
+        while ((current = movePicker.next()) != MovePicker.NO_MOVE) {
+            if (searchMoves.isEmpty() || searchMoves.contains(Bitboard.BBMove.asUciMove(current))) {
+                if (rootMoveCount == rootMoves.length) {
+                    rootMoves = Arrays.copyOf(rootMoves, Math.max(32, 2 * rootMoveCount));
+                }
+
+                rootMoves[rootMoveCount++] = current;
+            }
+        }
+
+        if (rootValues.length < rootMoveCount) {
+            rootValues = new int[rootMoves.length];
+            rootNodes = new long[rootMoves.length];
+        }
+
+        Arrays.fill(rootValues, 0, rootMoveCount, SimpleHeuristic.LOSS);
+        Arrays.fill(rootNodes, 0, rootMoveCount, 0L);
+    }
+
+    /**
+     * @return the best root move or {@code null} if the search was aborted
+     */
+    private SearchResult searchRoot(final int depth, final Color color) {
+        pvLengths[0] = 0;
+
+        final long zobristHash = board.zobristHash();
+
+        orderRootMoves(transpositionTable.probe(zobristHash));
+
+        int alpha = SimpleHeuristic.LOSS;
+        final int beta = SimpleHeuristic.WIN;
+
+        int value = SimpleHeuristic.LOSS;
+        long bestMove = MovePicker.NO_MOVE;
+
+        for (int i = 0; i < rootMoveCount; i++) {
+            final long current = rootMoves[i];
+            final long nodesBefore = metrics.getLastNodes();
+
+            movesMade[0] = current;
+            board.make(current);
+
+            final int childValue = i == 0
+                    ? -negamax(depth - 1, 1, -beta, -alpha, color.opposite(), true)
+                    : -scout(depth - 1, 1, alpha, beta, color.opposite());
+
+            if (aborted) {
+                return null;
+            }
+
+            board.unmake(current);
+
+            rootValues[i] = childValue;
+            rootNodes[i] = metrics.getLastNodes() - nodesBefore;
+
+            if (childValue > value) {
+                value = childValue;
+                bestMove = current;
+                updatePv(0, current);
+            }
+
+            alpha = Math.max(alpha, value);
+        }
+
+        if (!SimpleHeuristic.isCheckmateValue(value)) {
+            final TranspositionTable.NodeType type =
+                    value <= SimpleHeuristic.LOSS ? TranspositionTable.NodeType.UPPERBOUND : TranspositionTable.NodeType.EXACT;
+
+            transpositionTable.store(zobristHash, Bitboard.BBMove.key(bestMove), value, depth, type);
+        }
+
+        return new SearchResult(value, Arrays.copyOf(pvTable[0], pvLengths[0]));
+    }
+
+    /**
+     * Stable insertion sort by the previous iteration's value and then subtree size, with the transposition table move
+     * in front. The first iteration keeps the move picker order.
+     */
+    private void orderRootMoves(final long ttEntry) {
+        for (int i = 1; i < rootMoveCount; i++) {
+            final long move = rootMoves[i];
+            final int value = rootValues[i];
+            final long nodes = rootNodes[i];
+
+            int j = i - 1;
+
+            while (j >= 0 && (rootValues[j] < value || rootValues[j] == value && rootNodes[j] < nodes)) {
+                rootMoves[j + 1] = rootMoves[j];
+                rootValues[j + 1] = rootValues[j];
+                rootNodes[j + 1] = rootNodes[j];
+                j--;
+            }
+
+            rootMoves[j + 1] = move;
+            rootValues[j + 1] = value;
+            rootNodes[j + 1] = nodes;
+        }
+
+        if (ttEntry == TranspositionTable.NO_ENTRY) {
+            return;
+        }
+
+        final int ttMoveKey = TranspositionTable.moveKey(ttEntry);
+
+        for (int i = 1; i < rootMoveCount; i++) {
+            if (Bitboard.BBMove.key(rootMoves[i]) == ttMoveKey) {
+                final long move = rootMoves[i];
+                final int value = rootValues[i];
+                final long nodes = rootNodes[i];
+
+                for (int j = i; j > 0; j--) {
+                    rootMoves[j] = rootMoves[j - 1];
+                    rootValues[j] = rootValues[j - 1];
+                    rootNodes[j] = rootNodes[j - 1];
+                }
+
+                rootMoves[0] = move;
+                rootValues[0] = value;
+                rootNodes[0] = nodes;
+
+                return;
+            }
+        }
+    }
+
+    /**
+     * Aborts the search once the node limit or the hard deadline is reached. The nodes of this search are added to the
+     * count shared with the other searches and the clock is read every {@value TimeManager#POLL_INTERVAL} nodes, so
+     * with more than one search the node limit may be exceeded by less than that per search.
+     *
+     * @return whether the search is aborted
+     */
+    private boolean poll() {
+        final long nodes = metrics.getLastNodes();
+
+        if (limits.getSearchedNodes().get() + nodes - flushedNodes >= limits.getNodes()) {
+            aborted = true;
+        } else if (--nodesUntilPoll == 0) {
+            nodesUntilPoll = TimeManager.POLL_INTERVAL;
+
+            limits.getSearchedNodes().addAndGet(nodes - flushedNodes);
+            flushedNodes = nodes;
+
+            if (limits.getTimeManager() != null && limits.getTimeManager().hardLimitReached()) {
+                aborted = true;
+            }
+        }
+
+        return aborted;
+    }
+
+    /**
+     * @param height        the distance from the root
+     * @param allowNullMove whether a null move may be tried, false directly after a null move
+     */
+    private int negamax(
+            final int depth,
+            final int height,
+            final int alphaOriginal,
+            final int betaOriginal,
+            final Color currentColor,
+            final boolean allowNullMove
+    ) {
+        if (poll()) {
+            return ABORTED;
+        }
+
+        metrics.incrementNegamaxNodes();
+
+        ensureCapacity(height);
+        pvLengths[height] = 0;
+
+        final long zobristHash = board.zobristHash();
+
+        if (movesSinceHalfmoveReset.contains(zobristHash)) {
+            return SimpleHeuristic.DRAW;
+        }
+
+        final long ttEntry = transpositionTable.probe(zobristHash);
+
+        int alpha = alphaOriginal;
+        int beta = betaOriginal;
+
+        if (ttEntry != TranspositionTable.NO_ENTRY && TranspositionTable.depth(ttEntry) >= depth) {
+            metrics.incrementTableHits();
+
+            final int ttValue = TranspositionTable.value(ttEntry);
+            final TranspositionTable.NodeType ttNodeType = TranspositionTable.nodeType(ttEntry);
+
+            switch (ttNodeType) {
+                case LOWERBOUND:
+                    alpha = Math.max(alpha, ttValue);
+                    break;
+                case UPPERBOUND:
+                    beta = Math.min(beta, ttValue);
+            }
+
+            if (ttNodeType == TranspositionTable.NodeType.EXACT || alpha >= beta) {
+                return ttValue;
+            }
+        }
+
+        if (depth == 0) {
+            final boolean legalMovesRemaining = board.hasAnyLegalMove();
+
+            if (legalMovesRemaining) {
+                final MoveList tacticalMoves = board.generateLegalTacticalMoves(moveList(height));
+
+                if (!tacticalMoves.isEmpty()) {
+                    return quiescenceSearch(quiescencePly, height, alpha, beta, currentColor, tacticalMoves);
+                }
+            }
+
+            return currentColor.getHeuristicFactor() * heuristic.evaluate(board, legalMovesRemaining);
+        }
+
+        final boolean inCheck = board.isInCheck();
+
+        if (allowNullMove && !inCheck && depth >= NULL_MOVE_MIN_DEPTH && betaOriginal - alphaOriginal == 1 && canPassTurn(currentColor, beta)) {
+            movesMade[height] = MovePicker.NO_MOVE;
+
+            final int nullValue = nullMoveSearch(depth, height, beta, currentColor);
+
+            if (aborted) {
+                return ABORTED;
+            }
+
+            if (nullValue >= beta) {
+                return nullValue;
+            }
+        }
+
+        final MovePicker movePicker = movePicker(height);
+        final int[] killerKeys = killers[height];
+
+        final int hashMoveKey = hashMoveKey(ttEntry, height);
+
+        final long previousMove = height == 0 ? MovePicker.NO_MOVE : movesMade[height - 1];
+
+        movePicker.reset(board, hashMoveKey, killerKeys[0], killerKeys[1], history, history.counterMove(currentColor, previousMove));
+
+        int value = SimpleHeuristic.LOSS;
+        long bestMove = MovePicker.NO_MOVE;
+
+        int moveIndex = 0;
+        int quietCount = 0;
+
+        long current;
+
+        while ((current = movePicker.next()) != MovePicker.NO_MOVE) {
+            final int reduction = inCheck || isTactical(current, hashMoveKey, killerKeys)
+                    ? 0
+                    : lateMoveReductions.reduction(depth, moveIndex, history.score(currentColor, current, MovePicker.NO_KEY));
+
+            movesMade[height] = current;
+            board.make(current);
+
+            final int childValue;
+
+            if (moveIndex == 0) {
+                childValue = -negamax(depth - 1, height + 1, -beta, -alpha, currentColor.opposite(), true);
+            } else if (reduction > 0 && !board.isInCheck()) {
+                final int reducedValue = -negamax(depth - 1 - reduction, height + 1, -alpha - 1, -alpha, currentColor.opposite(), true);
+
+                childValue = aborted || reducedValue <= alpha
+                        ? reducedValue
+                        : -scout(depth - 1, height + 1, alpha, beta, currentColor.opposite());
+            } else {
+                childValue = -scout(depth - 1, height + 1, alpha, beta, currentColor.opposite());
+            }
+
+            moveIndex++;
+
+            if (aborted) {
+                return ABORTED;
+            }
+
+            if (childValue > value) {
+                value = childValue;
+                bestMove = current;
+                updatePv(height, current);
+            }
+
+            alpha = Math.max(alpha, value);
+
+            board.unmake(current);
+
+            final boolean quiet = !Bitboard.BBMove.isAttack(current) && !Bitboard.BBMove.isPromotion(current);
+
+            if (alpha >= beta) {
+                metrics.betaCutoff(moveIndex == 1);
+
+                if (quiet) {
+                    storeKiller(killerKeys, current);
+                    history.cutoff(currentColor, depth, current, quietsSearched[height], quietCount);
+                    history.setCounterMove(currentColor, previousMove, current);
+                }
+
+                break;
+            }
+
+            if (quiet) {
+                quietsSearched[height][quietCount++] = current;
+            }
+        }
+
+        if (moveIndex == 0) {
+            return currentColor.getHeuristicFactor() * heuristic.evaluate(board, false);
+        }
+
+        //Don't store game ending moves to still get the quickest mate
+        if (!SimpleHeuristic.isCheckmateValue(value)) {
+            final TranspositionTable.NodeType type;
+
+            if (value <= alphaOriginal) {
+                type = TranspositionTable.NodeType.UPPERBOUND;
+            } else if (value >= beta) {
+                type = TranspositionTable.NodeType.LOWERBOUND;
+            } else {
+                type = TranspositionTable.NodeType.EXACT;
+            }
+
+            transpositionTable.store(zobristHash, Bitboard.BBMove.key(bestMove), value, depth, type);
+        }
+
+        return value;
+    }
+
+    /**
+     * @return whether the move is a capture, a promotion, the hash move or a killer move, which are not reduced
+     */
+    private static boolean isTactical(final long move, final int hashMoveKey, final int[] killerKeys) {
+        if (Bitboard.BBMove.isAttack(move) || Bitboard.BBMove.isPromotion(move)) {
+            return true;
+        }
+
+        final int key = Bitboard.BBMove.key(move);
+
+        return key == hashMoveKey || key == killerKeys[0] || key == killerKeys[1];
+    }
+
+    /**
+     * Searches a child that is expected to be worse than alpha with a null window, and again with the full window if it
+     * is not
+     *
+     * @param alpha the alpha of the parent
+     * @param beta  the beta of the parent
+     * @return the value of the child from the perspective of the child
+     */
+    private int scout(final int depth, final int height, final int alpha, final int beta, final Color childColor) {
+        final int value = negamax(depth, height, -alpha - 1, -alpha, childColor, true);
+
+        if (aborted || -value <= alpha || -value >= beta) {
+            return value;
+        }
+
+        return negamax(depth, height, -beta, -alpha, childColor, true);
+    }
+
+    /**
+     * @return whether a null move is sound: not in a pawn endgame, not against a mate bound, and the
+     * position is good enough that passing might still fail high
+     */
+    private boolean canPassTurn(final Color currentColor, final int beta) {
+        if (SimpleHeuristic.isCheckmateValue(beta) || !board.hasNonPawnMaterial(currentColor)) {
+            return false;
+        }
+
+        return currentColor.getHeuristicFactor() * heuristic.evaluate(board, true) >= beta;
+    }
+
+    /**
+     * Searches the position after a null move with a null window around beta
+     *
+     * @return a value at least beta if the null move fails high, which is never a checkmate value since passing is
+     * not a legal move
+     */
+    private int nullMoveSearch(final int depth, final int height, final int beta, final Color currentColor) {
+        final int reduction = depth >= NULL_MOVE_DEEP_REDUCTION_DEPTH ? NULL_MOVE_REDUCTION + 1 : NULL_MOVE_REDUCTION;
+        final int reducedDepth = Math.max(0, depth - 1 - reduction);
+
+        final long state = board.makeNull();
+        int value = -negamax(reducedDepth, height + 1, -beta, -beta + 1, currentColor.opposite(), false);
+        board.unmakeNull(state);
+
+        if (aborted || value < beta) {
+            return value;
+        }
+
+        if (SimpleHeuristic.isCheckmateValue(value)) {
+            value = beta;
+        }
+
+        if (depth >= NULL_MOVE_VERIFICATION_DEPTH) {
+            final int verification = negamax(depth - reduction, height, beta - 1, beta, currentColor, false);
+
+            if (verification < beta) {
+                return verification;
+            }
+        }
+
+        return value;
+    }
+
+    private int quiescenceSearch(final int depth, final int height, final int initialAlpha, final int initialBeta, final Color currentColor) {
+        if (poll()) {
+            return ABORTED;
+        }
+
+        return quiescenceSearch(depth, height, initialAlpha, initialBeta, currentColor, board.generateLegalTacticalMoves(moveList(height)));
+    }
+
+    /**
+     * @param tacticalMoves the legal attack moves and promotions of the board, generated into the move list of the height
+     */
+    private int quiescenceSearch(
+            final int depth,
+            final int height,
+            final int initialAlpha,
+            final int initialBeta,
+            final Color currentColor,
+            final MoveList tacticalMoves
+    ) {
+        pvLengths[height] = 0;
+
+        // Pretend the game is not over for speed?!
+        final int standingPat = currentColor.getHeuristicFactor() * heuristic.evaluate(board, true);
+
+        if (standingPat >= initialBeta) {
+            metrics.quiescenceTermination(quiescencePly - depth);
+            return standingPat;
+        }
+
+        int alpha = Math.max(initialAlpha, standingPat);
+        int bestValue = standingPat;
+
+        if (depth == 0) {
+            metrics.quiescenceTermination(quiescencePly);
+
+            return bestValue;
+        }
+
+        quiescenceSearchMoveOrder.sort(tacticalMoves);
+
+        for (int i = 0; i < tacticalMoves.size(); i++) {
+            final long current = tacticalMoves.get(i);
+
+            // quiet underpromotions rarely change the outcome and only widen the tree
+            if (!Bitboard.BBMove.isAttack(current) && Bitboard.BBMove.promotionPiece(current) != MoveConstants.QUEEN) {
+                continue;
+            }
+
+            board.make(current);
+
+            final int value = -quiescenceSearch(depth - 1, height + 1, -initialBeta, -alpha, currentColor.opposite());
+
+            if (aborted) {
+                return ABORTED;
+            }
+
+            metrics.incrementQuiescenceNodes();
+
+            board.unmake(current);
+
+            if (value >= initialBeta) {
+                updatePv(height, current);
+                metrics.quiescenceTermination(quiescencePly - depth);
+                return value;
+            }
+
+            bestValue = Math.max(bestValue, value);
+
+            if (value > alpha) {
+                alpha = value;
+
+                updatePv(height, current);
+            }
+        }
+
+        metrics.quiescenceTermination(quiescencePly - depth);
+        return bestValue;
+    }
+
+    /**
+     * Sets the principal variation of the node at the height to the move followed by the principal variation of its
+     * child
+     */
+    private void updatePv(final int height, final long move) {
+        final long[] row = pvTable[height];
+        final int childLength = pvLengths[height + 1];
+
+        row[0] = move;
+        System.arraycopy(pvTable[height + 1], 0, row, 1, childLength);
+        pvLengths[height] = childLength + 1;
+    }
+
+    /**
+     * The move of the transposition table entry, or the move of the previous principal variation for this ply
+     */
+    private int hashMoveKey(final long ttEntry, final int height) {
+        if (ttEntry != TranspositionTable.NO_ENTRY) {
+            return TranspositionTable.moveKey(ttEntry);
+        }
+
+        if (orderingPv != null) {
+            final int i = orderingPvOffset + height;
+
+            if (i < orderingPv.length && orderingPv[i] != MovePicker.NO_MOVE) {
+                return Bitboard.BBMove.key(orderingPv[i]);
+            }
+        }
+
+        return MovePicker.NO_KEY;
+    }
+
+    private static void storeKiller(final int[] killerKeys, final long move) {
+        final int key = Bitboard.BBMove.key(move);
+
+        if (killerKeys[0] != key) {
+            killerKeys[1] = killerKeys[0];
+            killerKeys[0] = key;
+        }
+    }
+
+    private MoveList moveList(final int height) {
+        ensureCapacity(height);
+
+        return moveLists[height];
+    }
+
+    private MovePicker movePicker(final int height) {
+        ensureCapacity(height);
+
+        return movePickers[height];
+    }
+
+    private void ensureCapacity(final int height) {
+        if (height >= moveLists.length) {
+            final int oldLength = moveLists.length;
+            final int newLength = Math.max(height + 1, 2 * oldLength);
+
+            moveLists = Arrays.copyOf(moveLists, newLength);
+            movePickers = Arrays.copyOf(movePickers, newLength);
+            killers = Arrays.copyOf(killers, newLength);
+            movesMade = Arrays.copyOf(movesMade, newLength);
+            quietsSearched = Arrays.copyOf(quietsSearched, newLength);
+            pvTable = Arrays.copyOf(pvTable, newLength);
+            pvLengths = Arrays.copyOf(pvLengths, newLength + 1);
+
+            for (int i = oldLength; i < newLength; i++) {
+                moveLists[i] = new MoveList();
+                movePickers[i] = new MovePicker();
+                killers[i] = new int[2];
+                quietsSearched[i] = new long[MoveList.MAX_MOVES];
+            }
+
+            // the row of a node at height h holds at most one move per height from h to the deepest node
+            for (int i = 0; i < newLength; i++) {
+                pvTable[i] = i < oldLength ? Arrays.copyOf(pvTable[i], newLength - i) : new long[newLength - i];
+            }
+        }
+    }
+}
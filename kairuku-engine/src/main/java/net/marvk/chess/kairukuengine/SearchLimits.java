@@ -0,0 +1,58 @@
+package net.marvk.chess.kairukuengine;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The limits of one search. The depth limits the iterative deepening, the node limit and the deadlines of the time
+ * manager abort the current iteration and a mate limit stops the iterative deepening once a mate that fast is found.
+ * The node limit applies to all searches sharing the limits, see {@link #helper(int)}.
+ */
+@Getter
+final class SearchLimits {
+    static final long NO_NODE_LIMIT = Long.MAX_VALUE;
+    static final int NO_MATE_LIMIT = 0;
+
+    private final int depth;
+    private final long nodes;
+    /**
+     * Mate in this many moves or less, {@link #NO_MATE_LIMIT} to search for the best move
+     */
+    private final int mate;
+    /**
+     * The deadlines or {@code null} for none
+     */
+    private final TimeManager timeManager;
+    /**
+     * The nodes searched by all searches sharing the limits, every search adds its nodes in batches
+     */
+    private final AtomicLong searchedNodes;
+
+    SearchLimits(final int depth, final long nodes, final int mate, final TimeManager timeManager) {
+        this(depth, nodes, mate, timeManager, new AtomicLong());
+    }
+
+    private SearchLimits(final int depth, final long nodes, final int mate, final TimeManager timeManager, final AtomicLong searchedNodes) {
+        this.depth = mate == NO_MATE_LIMIT ? depth : Math.min(depth, 2 * mate - 1);
+        this.nodes = nodes;
+        this.mate = mate;
+        this.timeManager = timeManager;
+        this.searchedNodes = searchedNodes;
+    }
+
+    /**
+     * @return limits for a helper search to the depth that share the node and mate limits and the node count, but not
+     * the deadlines, helpers are aborted once the main search is done
+     */
+    SearchLimits helper(final int depth) {
+        return new SearchLimits(depth, nodes, mate, null, searchedNodes);
+    }
+
+    /**
+     * @return limits that only limit the depth
+     */
+    static SearchLimits depth(final int depth) {
+        return new SearchLimits(depth, NO_NODE_LIMIT, NO_MATE_LIMIT, null);
+    }
+}
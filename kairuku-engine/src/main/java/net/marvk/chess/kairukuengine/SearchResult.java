@@ -0,0 +1,19 @@
+package net.marvk.chess.kairukuengine;
+
+import lombok.Data;
+
+/**
+ * The value of a searched root and its principal variation, which starts with the best move
+ */
+@Data
+final class SearchResult {
+    private final int value;
+    private final long[] principalVariation;
+
+    /**
+     * @return the first move of the principal variation or {@link MovePicker#NO_MOVE} if it is empty
+     */
+    long getMove() {
+        return principalVariation.length == 0 ? MovePicker.NO_MOVE : principalVariation[0];
+    }
+}
@@ -17,6 +17,27 @@ public class SimpleHeuristic implements Heuristic {
         return value > WIN - MAX_FULL_MOVES || value < LOSS + MAX_FULL_MOVES;
     }
 
+    /**
+     * Checkmate values encode the fullmove clock of the mate position, this converts them back to moves
+     *
+     * @param value        a value from the perspective of the active player of the root
+     * @param activePlayer the active player of the root
+     * @param fullmoveClock the fullmove clock of the root
+     * @return the number of moves until the active player mates, negative if it gets mated, {@code 0} if the value is no
+     * checkmate value
+     */
+    public static int movesToMate(final int value, final Color activePlayer, final int fullmoveClock) {
+        if (value > WIN - MAX_FULL_MOVES) {
+            return WIN - value - fullmoveClock + (activePlayer == Color.WHITE ? 1 : 0);
+        }
+
+        if (value < LOSS + MAX_FULL_MOVES) {
+            return -(value - LOSS - fullmoveClock);
+        }
+
+        return 0;
+    }
+
     /**
      * @return the heuristic value of the board from White's perspective
      */
@@ -0,0 +1,140 @@
+package net.marvk.chess.kairukuengine;
+
+import net.marvk.chess.core.Color;
+import net.marvk.chess.uci4j.Go;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Derives the deadlines of a search from the clock. The soft deadline is checked between iterations and stops the
+ * iterative deepening, it is extended while the best move keeps changing between iterations and after a fail low. The
+ * hard deadline is polled by the search and aborts the current iteration.
+ *
+ * <p>Without a move time the share of the remaining time is the clock divided by the moves to go, assumed to be
+ * {@value #DEFAULT_MOVES_TO_GO} in sudden death, plus most of the increment. The move overhead is subtracted from the
+ * clock first to account for the time between the engine sending its move and the opponent's clock starting.</p>
+ */
+final class TimeManager {
+    static final int DEFAULT_MOVE_OVERHEAD = 30;
+
+    /**
+     * The search polls the hard deadline every this many nodes
+     */
+    static final int POLL_INTERVAL = 1024;
+
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    private static final int MAX_MOVES_TO_GO = 50;
+
+    private static final int HARD_LIMIT_FACTOR = 4;
+
+    /**
+     * A drop of the root value by more than this between iterations is a fail low
+     */
+    private static final int FAIL_LOW_MARGIN = 30;
+    private static final double FAIL_LOW_EXTENSION = 1.5;
+
+    private long startNanos;
+    private long softMillis;
+    private long hardMillis;
+
+    private long previousBestMove;
+    private int previousValue;
+    private double bestMoveChanges;
+
+    /**
+     * Starts the clock of a search without deadlines
+     */
+    void startUnlimited() {
+        start(Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Starts the clock of a search, a search without a clock or move time has no deadlines
+     */
+    void start(final Go go, final Color color, final int moveOverhead) {
+        if (Boolean.TRUE.equals(go.getInfinite())) {
+            startUnlimited();
+            return;
+        }
+
+        if (go.getMoveTime() != null) {
+            final long millis = Math.max(1, go.getMoveTime() - moveOverhead);
+
+            start(millis, millis);
+            return;
+        }
+
+        final Integer time = color == Color.WHITE ? go.getWhiteTime() : go.getBlackTime();
+
+        if (time == null) {
+            startUnlimited();
+            return;
+        }
+
+        final Integer increment = color == Color.WHITE ? go.getWhiteIncrement() : go.getBlackIncrement();
+        final int movesToGo = go.getMovesToGo() == null ? DEFAULT_MOVES_TO_GO : Math.min(go.getMovesToGo(), MAX_MOVES_TO_GO);
+
+        final long available = Math.max(1, time - moveOverhead);
+        final long share = available / Math.max(1, movesToGo) + (increment == null ? 0 : increment * 3L / 4L);
+
+        final long soft = Math.max(1, Math.min(share, available / 2));
+        final long hard = Math.max(soft, Math.min(share * HARD_LIMIT_FACTOR, available * 4 / 5));
+
+        start(soft, hard);
+    }
+
+    private void start(final long softMillis, final long hardMillis) {
+        this.startNanos = System.nanoTime();
+        this.softMillis = softMillis;
+        this.hardMillis = hardMillis;
+        this.previousBestMove = MovePicker.NO_MOVE;
+        this.previousValue = 0;
+        this.bestMoveChanges = 0.0;
+    }
+
+    boolean isLimited() {
+        return hardMillis != Long.MAX_VALUE;
+    }
+
+    boolean hardLimitReached() {
+        return elapsedMillis() >= hardMillis;
+    }
+
+    /**
+     * Called after every completed iteration
+     *
+     * @return whether the next iteration should not be started
+     */
+    boolean iterationCompleted(final SearchResult result) {
+        bestMoveChanges /= 2.0;
+
+        final boolean failLow = previousBestMove != MovePicker.NO_MOVE && result.getValue() < previousValue - FAIL_LOW_MARGIN;
+
+        if (previousBestMove != MovePicker.NO_MOVE && result.getMove() != previousBestMove) {
+            bestMoveChanges += 1.0;
+        }
+
+        previousBestMove = result.getMove();
+        previousValue = result.getValue();
+
+        if (!isLimited()) {
+            return false;
+        }
+
+        final double extension = (1.0 + bestMoveChanges) * (failLow ? FAIL_LOW_EXTENSION : 1.0);
+
+        return elapsedMillis() >= Math.min(hardMillis, softMillis * extension);
+    }
+
+    long getSoftMillis() {
+        return softMillis;
+    }
+
+    long getHardMillis() {
+        return hardMillis;
+    }
+
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
@@ -1,75 +1,215 @@
 package net.marvk.chess.kairukuengine;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-
-import java.util.LinkedHashMap;
-import java.util.Map;
+/**
+ * Fixed size transposition table of packed {@code long} slots, grouped into buckets of {@value #BUCKET_SIZE} entries
+ * that share one index. Each entry takes two longs, the Zobrist key xor the data and the data, so an entry whose halves
+ * were written by different stores fails verification instead of returning a wrong entry. The data packs the 16 bit
+ * move key, the value, the depth, the node type and the age of the search that stored it.
+ *
+ * <p>A store replaces the entry with the same key if there is one, otherwise the entry with the lowest depth, where
+ * entries from previous searches count as {@value #AGE_DEPTH_PENALTY} plies shallower per search they are old.</p>
+ *
+ * <p>Subclasses only provide the slot storage, see {@link Storage}.</p>
+ */
+public abstract class TranspositionTable {
+    public static final int ENTRY_BYTES = 2 * Long.BYTES;
+    public static final int BUCKET_SIZE = 4;
+
+    public static final int MIN_MEGABYTES = 1;
+    public static final int MAX_MEGABYTES = 65_536;
+
+    /**
+     * Returned by {@link #probe(long)} if there is no entry for the key, no stored entry packs to {@code 0}
+     */
+    public static final long NO_ENTRY = 0L;
+
+    private static final int MOVE_SHIFT = 0;
+    private static final int VALUE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 48;
+    private static final int NODE_TYPE_SHIFT = 56;
+    private static final int AGE_SHIFT = 58;
+
+    private static final long MOVE_MASK = 0xffffL;
+    private static final long VALUE_MASK = 0xffffffffL;
+    private static final long DEPTH_MASK = 0xffL;
+    private static final long NODE_TYPE_MASK = 0x3L;
+    private static final int AGE_MASK = 0x3f;
+
+    private static final int AGE_DEPTH_PENALTY = 8;
+
+    private static final NodeType[] NODE_TYPES = NodeType.values();
+
+    private static final int HASH_FULL_SAMPLE_BUCKETS = 1000 / BUCKET_SIZE;
+
+    private final long bucketMask;
+
+    private int age;
+
+    TranspositionTable(final int megabytes, final int maxMegabytes) {
+        if (megabytes < MIN_MEGABYTES || megabytes > maxMegabytes) {
+            throw new IllegalArgumentException("Size must be between " + MIN_MEGABYTES + " and " + maxMegabytes + " MB, was " + megabytes);
+        }
 
-public class TranspositionTable<T> {
-    private final LinkedHashMap<Long, T> table;
-    private final int capacity;
+        this.bucketMask = Long.highestOneBit((long) megabytes * 1024L * 1024L / (ENTRY_BYTES * BUCKET_SIZE)) - 1;
+    }
 
-    public TranspositionTable(final int capacity) {
-        this.capacity = capacity;
-        this.table = new LinkedHashMapWithCapacity<>(this.capacity);
+    public static TranspositionTable create(final Storage storage, final int megabytes) {
+        switch (storage) {
+            case HEAP:
+                return new HeapTranspositionTable(megabytes);
+            case DIRECT:
+                return new OffHeapTranspositionTable(megabytes, false);
+            case MAPPED:
+                return new OffHeapTranspositionTable(megabytes, true);
+            default:
+                throw new AssertionError(storage);
+        }
     }
 
-    public TranspositionTable() {
-        this.capacity = -1;
-        this.table = new LinkedHashMap<>();
+    /**
+     * @return the Zobrist key xor the data of the entry
+     */
+    abstract long readKey(long entry);
+
+    abstract long readData(long entry);
+
+    /**
+     * Writes both halves of the entry as two plain aligned long writes, a reader that sees one half of a concurrent
+     * write fails the key verification
+     */
+    abstract void write(long entry, long key, long data);
+
+    abstract void clearEntries();
+
+    /**
+     * @return the packed entry for the key or {@link #NO_ENTRY}
+     */
+    public long probe(final long zobristHash) {
+        final long bucket = bucket(zobristHash);
+
+        for (long i = bucket; i < bucket + BUCKET_SIZE; i++) {
+            final long data = readData(i);
+
+            if (data != NO_ENTRY && (readKey(i) ^ data) == zobristHash) {
+                return data;
+            }
+        }
+
+        return NO_ENTRY;
     }
 
-    public T get(final long hash) {
-        return table.get(hash);
+    public void store(final long zobristHash, final int moveKey, final int value, final int depth, final NodeType nodeType) {
+        final long bucket = bucket(zobristHash);
+
+        long replace = bucket;
+        int replaceScore = Integer.MAX_VALUE;
+
+        for (long i = bucket; i < bucket + BUCKET_SIZE; i++) {
+            final long data = readData(i);
+
+            if (data == NO_ENTRY || (readKey(i) ^ data) == zobristHash) {
+                replace = i;
+                break;
+            }
+
+            final int score = depth(data) - AGE_DEPTH_PENALTY * ((age - age(data)) & AGE_MASK);
+
+            if (score < replaceScore) {
+                replace = i;
+                replaceScore = score;
+            }
+        }
+
+        final long data = ((long) moveKey & MOVE_MASK) << MOVE_SHIFT
+                | ((long) value & VALUE_MASK) << VALUE_SHIFT
+                | ((long) Math.min(depth, (int) DEPTH_MASK) & DEPTH_MASK) << DEPTH_SHIFT
+                | (long) (nodeType.ordinal() + 1) << NODE_TYPE_SHIFT
+                | (long) age << AGE_SHIFT;
+
+        write(replace, zobristHash ^ data, data);
     }
 
-    public T put(final long key, final T value) {
-        return table.put(key, value);
+    /**
+     * Starts a new search, entries of previous searches are preferred for replacement
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
     }
 
     public void clear() {
-        table.clear();
+        clearEntries();
+        age = 0;
     }
 
-    @AllArgsConstructor
-    @Data
-    public static class Entry {
-        private final ValuedMove valuedMove;
-        private int depth;
-        private int value;
-        private NodeType nodeType;
+    /**
+     * @return the permille of entries used by the current search, sampled from the first thousand entries
+     */
+    public int hashFull() {
+        final int sampleBuckets = (int) Math.min(HASH_FULL_SAMPLE_BUCKETS, bucketMask + 1);
+
+        int used = 0;
+
+        for (long i = 0; i < sampleBuckets * BUCKET_SIZE; i++) {
+            final long data = readData(i);
+
+            if (data != NO_ENTRY && age(data) == age) {
+                used++;
+            }
+        }
+
+        return used * 1000 / (sampleBuckets * BUCKET_SIZE);
     }
 
-    public enum NodeType {
-        EXACT,
-        LOWERBOUND,
-        UPPERBOUND
+    /**
+     * @return the number of entries
+     */
+    public long capacity() {
+        return (bucketMask + 1) * BUCKET_SIZE;
     }
 
-    public double load() {
-        if (capacity <= 0) {
-            return 0.;
-        }
+    private long bucket(final long zobristHash) {
+        return (zobristHash & bucketMask) * BUCKET_SIZE;
+    }
 
-        return ((double) table.size()) / capacity;
+    public static int moveKey(final long data) {
+        return (int) (data >>> MOVE_SHIFT & MOVE_MASK);
     }
 
-    public int size() {
-        return table.size();
+    public static int value(final long data) {
+        return (int) (data >>> VALUE_SHIFT);
     }
 
-    private static class LinkedHashMapWithCapacity<T> extends LinkedHashMap<Long, T> {
-        private final int capacity;
+    public static int depth(final long data) {
+        return (int) (data >>> DEPTH_SHIFT & DEPTH_MASK);
+    }
 
-        LinkedHashMapWithCapacity(final int capacity) {
-            super();
-            this.capacity = capacity;
-        }
+    public static NodeType nodeType(final long data) {
+        return NODE_TYPES[(int) (data >>> NODE_TYPE_SHIFT & NODE_TYPE_MASK) - 1];
+    }
 
-        @Override
-        protected boolean removeEldestEntry(final Map.Entry<Long, T> eldest) {
-            return size() > capacity;
-        }
+    private static int age(final long data) {
+        return (int) (data >>> AGE_SHIFT) & AGE_MASK;
+    }
+
+    public enum NodeType {
+        EXACT,
+        LOWERBOUND,
+        UPPERBOUND
+    }
+
+    public enum Storage {
+        /**
+         * A {@code long[]} on the Java heap, limited to {@value HeapTranspositionTable#MAX_MEGABYTES} MB
+         */
+        HEAP,
+        /**
+         * Direct byte buffers outside the Java heap, limited by {@code -XX:MaxDirectMemorySize}
+         */
+        DIRECT,
+        /**
+         * Memory mapped temporary file, not limited by the heap or the direct memory limit and paged by the
+         * operating system
+         */
+        MAPPED
     }
 }
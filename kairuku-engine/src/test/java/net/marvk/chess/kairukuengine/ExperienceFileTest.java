@@ -0,0 +1,116 @@
+package net.marvk.chess.kairukuengine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+class ExperienceFileTest {
+    private static final TranspositionTable ENTRIES = TranspositionTable.create(TranspositionTable.Storage.HEAP, 1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordAndSeedAcrossRestarts() throws IOException {
+        final Path path = directory.resolve("experience.bin");
+
+        try (final ExperienceFile experience = ExperienceFile.open(path, 1)) {
+            experience.record(42L, entry(42L, 7, 5, TranspositionTable.NodeType.EXACT));
+            experience.record(43L, entry(43L, 8, 9, TranspositionTable.NodeType.LOWERBOUND));
+        }
+
+        try (final ExperienceFile experience = ExperienceFile.open(path, 1)) {
+            Assertions.assertEquals(1, experience.size());
+
+            final TranspositionTable table = TranspositionTable.create(TranspositionTable.Storage.HEAP, 1);
+            experience.seed(table);
+
+            final long entry = table.probe(42L);
+
+            Assertions.assertEquals(7, TranspositionTable.moveKey(entry));
+            Assertions.assertEquals(5, TranspositionTable.depth(entry));
+            Assertions.assertEquals(TranspositionTable.NO_ENTRY, table.probe(43L));
+        }
+    }
+
+    @Test
+    void keepsDeepestEntryAndCompacts() throws IOException {
+        final Path path = directory.resolve("experience.bin");
+
+        try (final ExperienceFile experience = ExperienceFile.open(path, 1)) {
+            experience.record(42L, entry(42L, 1, 6, TranspositionTable.NodeType.EXACT));
+            experience.record(42L, entry(42L, 2, 4, TranspositionTable.NodeType.EXACT));
+            experience.record(42L, entry(42L, 3, 8, TranspositionTable.NodeType.EXACT));
+            experience.record(42L, entry(42L, 3, 8, TranspositionTable.NodeType.EXACT));
+        }
+
+        // header and the two records that were deeper than the entry before, the repeated entry is not written
+        Assertions.assertEquals(Long.BYTES + 2 * ExperienceFile.RECORD_BYTES, Files.size(path));
+
+        try (final ExperienceFile experience = ExperienceFile.open(path, 1)) {
+            final TranspositionTable table = TranspositionTable.create(TranspositionTable.Storage.HEAP, 1);
+            experience.seed(table);
+
+            Assertions.assertEquals(3, TranspositionTable.moveKey(table.probe(42L)));
+        }
+
+        Assertions.assertEquals(Long.BYTES + ExperienceFile.RECORD_BYTES, Files.size(path));
+    }
+
+    @Test
+    void evictsShallowestWhenFull() throws IOException {
+        final Path path = directory.resolve("experience.bin");
+        final int maxRecords = 1024 * 1024 / ExperienceFile.RECORD_BYTES;
+        final Random random = new Random(0);
+
+        try (final ExperienceFile experience = ExperienceFile.open(path, 1)) {
+            experience.record(42L, entry(42L, 1, 20, TranspositionTable.NodeType.EXACT));
+
+            for (int i = 0; i < maxRecords; i++) {
+                final long key = random.nextLong();
+                experience.record(key, entry(key, 0, 1 + i % 10, TranspositionTable.NodeType.EXACT));
+            }
+
+            Assertions.assertTrue(experience.size() <= maxRecords);
+            Assertions.assertTrue(experience.size() > maxRecords / 2);
+
+            // the kept entry is still reachable in the map, recording it again is not a new entry
+            final int size = experience.size();
+            experience.record(42L, entry(42L, 1, 20, TranspositionTable.NodeType.EXACT));
+
+            Assertions.assertEquals(size, experience.size());
+        }
+
+        Assertions.assertTrue(Files.size(path) <= Long.BYTES + (long) maxRecords * ExperienceFile.RECORD_BYTES);
+
+        try (final ExperienceFile experience = ExperienceFile.open(path, 1)) {
+            final TranspositionTable table = TranspositionTable.create(TranspositionTable.Storage.HEAP, 16);
+            experience.seed(table);
+
+            Assertions.assertEquals(1, TranspositionTable.moveKey(table.probe(42L)));
+        }
+    }
+
+    @Test
+    void refusesForeignFile() throws IOException {
+        final Path path = directory.resolve("experience.bin");
+        final byte[] content = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17};
+        Files.write(path, content);
+
+        Assertions.assertThrows(UncheckedIOException.class, () -> ExperienceFile.open(path, 1));
+
+        Assertions.assertArrayEquals(content, Files.readAllBytes(path));
+    }
+
+    private static long entry(final long key, final int moveKey, final int depth, final TranspositionTable.NodeType nodeType) {
+        ENTRIES.store(key, moveKey, 0, depth, nodeType);
+
+        return ENTRIES.probe(key);
+    }
+}
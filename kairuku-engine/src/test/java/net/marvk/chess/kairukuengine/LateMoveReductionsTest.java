@@ -0,0 +1,69 @@
+package net.marvk.chess.kairukuengine;
+
+import net.marvk.chess.core.Color;
+import net.marvk.chess.core.bitboards.MoveConstants;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LateMoveReductionsTest {
+    @Test
+    void earlyMovesAndShallowNodesAreNotReduced() {
+        final LateMoveReductions reductions = new LateMoveReductions(100, 200, 3, 4);
+
+        for (int moveIndex = 0; moveIndex < 4; moveIndex++) {
+            Assertions.assertEquals(0, reductions.reduction(20, moveIndex));
+        }
+
+        for (int moveIndex = 0; moveIndex < 100; moveIndex++) {
+            Assertions.assertEquals(0, reductions.reduction(2, moveIndex));
+        }
+    }
+
+    @Test
+    void reductionsGrowWithDepthAndMoveIndexAndLeaveOnePly() {
+        final LateMoveReductions reductions = LateMoveReductions.defaults();
+
+        for (int depth = 1; depth < 100; depth++) {
+            for (int moveIndex = 0; moveIndex < 100; moveIndex++) {
+                final int reduction = reductions.reduction(depth, moveIndex);
+
+                Assertions.assertTrue(depth - 1 - reduction >= 1 || reduction == 0);
+                Assertions.assertTrue(reduction <= reductions.reduction(depth + 1, moveIndex));
+                Assertions.assertTrue(reduction <= reductions.reduction(depth, moveIndex + 1));
+            }
+        }
+
+        Assertions.assertTrue(reductions.reduction(20, 40) > 1);
+    }
+
+    @Test
+    void historyAdjustsReductionsByOnePly() {
+        final LateMoveReductions reductions = LateMoveReductions.defaults();
+        final int reduction = reductions.reduction(20, 20);
+
+        final QuietHistory history = new QuietHistory();
+        final long good = (12L << MoveConstants.SOURCE_SQUARE_INDEX_SHIFT) | (28L << MoveConstants.TARGET_SQUARE_INDEX_SHIFT);
+        final long bad = (11L << MoveConstants.SOURCE_SQUARE_INDEX_SHIFT) | (27L << MoveConstants.TARGET_SQUARE_INDEX_SHIFT);
+
+        Assertions.assertEquals(reduction, reductions.reduction(20, 20, history.score(Color.WHITE, good, MovePicker.NO_KEY)));
+
+        history.cutoff(Color.WHITE, 4, good, new long[]{bad}, 1);
+
+        // a single cutoff is not enough to change the reduction
+        Assertions.assertEquals(reduction, reductions.reduction(20, 20, history.score(Color.WHITE, good, MovePicker.NO_KEY)));
+
+        for (int i = 0; i < 1000; i++) {
+            history.cutoff(Color.WHITE, 20, good, new long[]{bad}, 1);
+        }
+
+        final int goodScore = history.score(Color.WHITE, good, MovePicker.NO_KEY);
+        final int badScore = history.score(Color.WHITE, bad, MovePicker.NO_KEY);
+
+        // saturated scores at the bounds of the history still change the reduction by one ply only
+        Assertions.assertEquals(QuietHistory.MAX_HISTORY, goodScore);
+        Assertions.assertEquals(-QuietHistory.MAX_HISTORY, badScore);
+        Assertions.assertEquals(reduction - 1, reductions.reduction(20, 20, goodScore));
+        Assertions.assertEquals(reduction + 1, reductions.reduction(20, 20, badScore));
+        Assertions.assertEquals(0, reductions.reduction(20, 0, badScore));
+    }
+}
@@ -0,0 +1,56 @@
+package net.marvk.chess.kairukuengine;
+
+import net.marvk.chess.core.Color;
+import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.core.bitboards.MoveList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class QuietHistoryTest {
+    private static final MoveList QUIETS = Bitboard.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1")
+                                                   .generateLegalQuietMoves(new MoveList());
+
+    @Test
+    void cutoffsRewardTheMoveAndPunishEarlierQuiets() {
+        final QuietHistory history = new QuietHistory();
+        final long cutoff = QUIETS.get(0);
+        final long[] searched = {QUIETS.get(1), QUIETS.get(2)};
+
+        for (int i = 0; i < 1000; i++) {
+            history.cutoff(Color.WHITE, 20, cutoff, searched, searched.length);
+        }
+
+        final int score = history.score(Color.WHITE, cutoff, MovePicker.NO_KEY);
+
+        Assertions.assertTrue(score > 0 && score <= QuietHistory.MAX_HISTORY);
+        Assertions.assertTrue(history.score(Color.WHITE, searched[0], MovePicker.NO_KEY) < 0);
+        Assertions.assertTrue(history.score(Color.WHITE, searched[0], MovePicker.NO_KEY) >= -QuietHistory.MAX_HISTORY);
+        Assertions.assertEquals(0, history.score(Color.BLACK, cutoff, MovePicker.NO_KEY));
+
+        history.age();
+
+        Assertions.assertEquals(score / 2, history.score(Color.WHITE, cutoff, MovePicker.NO_KEY));
+    }
+
+    @Test
+    void counterMoves() {
+        final QuietHistory history = new QuietHistory();
+        final long previous = QUIETS.get(3);
+        final long counter = QUIETS.get(4);
+
+        Assertions.assertEquals(MovePicker.NO_KEY, history.counterMove(Color.BLACK, previous));
+
+        history.setCounterMove(Color.BLACK, previous, counter);
+
+        Assertions.assertEquals(Bitboard.BBMove.key(counter), history.counterMove(Color.BLACK, previous));
+        Assertions.assertEquals(MovePicker.NO_KEY, history.counterMove(Color.BLACK, MovePicker.NO_MOVE));
+        Assertions.assertEquals(
+                QuietHistory.COUNTER_MOVE_BONUS,
+                history.score(Color.BLACK, counter, history.counterMove(Color.BLACK, previous))
+        );
+
+        history.clear();
+
+        Assertions.assertEquals(MovePicker.NO_KEY, history.counterMove(Color.BLACK, previous));
+    }
+}
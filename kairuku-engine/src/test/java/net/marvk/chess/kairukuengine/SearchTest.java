@@ -0,0 +1,72 @@
+package net.marvk.chess.kairukuengine;
+
+import net.marvk.chess.core.Color;
+import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.core.bitboards.MoveConstants;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+class SearchTest {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    void nodeLimitIsSharedWithHelpers() {
+        final Bitboard board = Bitboard.fromFen(KIWIPETE);
+        final TranspositionTable table = TranspositionTable.create(TranspositionTable.Storage.HEAP, 1);
+        final SearchLimits limits = new SearchLimits(64, 5000L, SearchLimits.NO_MATE_LIMIT, null);
+
+        final Search main = new Search(new SimpleHeuristic(), LateMoveReductions.defaults());
+        final Search helper = new Search(new SimpleHeuristic(), LateMoveReductions.defaults());
+
+        main.search(board, board.getActivePlayer(), table, Collections.emptySet(), Collections.emptySet(), null, limits);
+        helper.search(board, board.getActivePlayer(), table, Collections.emptySet(), Collections.emptySet(), null, limits.helper(65));
+
+        Assertions.assertTrue(main.getMetrics().getLastNodes() >= 5000L);
+        Assertions.assertTrue(helper.getMetrics().getLastNodes() < TimeManager.POLL_INTERVAL);
+        Assertions.assertTrue(main.getMetrics().getLastNodes() + helper.getMetrics().getLastNodes() <= 5000L + TimeManager.POLL_INTERVAL);
+    }
+
+    @Test
+    void helperStopsAtMateLimit() {
+        final Bitboard board = Bitboard.fromFen("r1b1kb1r/pppp1ppp/5q2/4n3/3KP3/2N3PN/PPP4P/R1BQ1B1R b kq - 0 1");
+        final TranspositionTable table = TranspositionTable.create(TranspositionTable.Storage.HEAP, 1);
+        final SearchLimits limits = new SearchLimits(64, SearchLimits.NO_NODE_LIMIT, 3, null);
+
+        final Search helper = new Search(new SimpleHeuristic(), LateMoveReductions.defaults());
+        final SearchResult result = helper.search(board, board.getActivePlayer(), table, Collections.emptySet(), Collections.emptySet(), null, limits.helper(64));
+
+        Assertions.assertTrue(SimpleHeuristic.isCheckmateValue(result.getValue()));
+        Assertions.assertTrue(helper.getCompletedDepth() <= 5);
+    }
+
+    @Test
+    void historyAgesOncePerReset() {
+        final Bitboard board = Bitboard.fromFen(KIWIPETE);
+        final TranspositionTable table = TranspositionTable.create(TranspositionTable.Storage.HEAP, 1);
+        final SearchLimits limits = SearchLimits.depth(4);
+
+        // h1h1 is never played, so only aging changes its score
+        final long neverPlayed = (7L << MoveConstants.SOURCE_SQUARE_INDEX_SHIFT) | (7L << MoveConstants.TARGET_SQUARE_INDEX_SHIFT);
+
+        final Search main = new Search(new SimpleHeuristic(), LateMoveReductions.defaults());
+        final Search helper = new Search(new SimpleHeuristic(), LateMoveReductions.defaults());
+
+        for (final Search search : new Search[]{main, helper}) {
+            search.getHistory().cutoff(Color.WHITE, 20, neverPlayed, new long[0], 0);
+        }
+
+        final int score = main.getHistory().score(Color.WHITE, neverPlayed, MovePicker.NO_KEY);
+
+        // the engine resets every search once before a go, searching and aborting must not age the history
+        main.reset();
+        helper.reset();
+        main.search(board, board.getActivePlayer(), table, Collections.emptySet(), Collections.emptySet(), null, limits);
+        helper.search(board, board.getActivePlayer(), table, Collections.emptySet(), Collections.emptySet(), null, limits.helper(5));
+        helper.abort();
+
+        Assertions.assertEquals(score / 2, main.getHistory().score(Color.WHITE, neverPlayed, MovePicker.NO_KEY));
+        Assertions.assertEquals(score / 2, helper.getHistory().score(Color.WHITE, neverPlayed, MovePicker.NO_KEY));
+    }
+}
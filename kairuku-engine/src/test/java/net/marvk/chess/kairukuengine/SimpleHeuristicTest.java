@@ -26,9 +26,20 @@ class SimpleHeuristicTest {
         final int blackRookPosition = 0;
         final int whitePawnPosition = 5 + 10 + 10 + 0;
 
+        // one bishop and two rooks left, the king tables are tapered between middlegame and endgame
+        final int phase = 1 + 2 + 2;
+        final int blackKingPositionMid = 20;
+        final int blackKingPositionLate = -30;
+        final int whiteKingPositionMid = 30;
+        final int whiteKingPositionLate = -30;
+
         final int blackPosition = blackPawnPosition + blackBishopPosition + blackRookPosition;
         final int whitePosition = whitePawnPosition;
 
+        final int positionMid = blackPosition + blackKingPositionMid - whitePosition - whiteKingPositionMid;
+        final int positionLate = blackPosition + blackKingPositionLate - whitePosition - whiteKingPositionLate;
+        final int position = (positionMid * phase + positionLate * (24 - phase)) / 24;
+
         final int blackPieces = blackPawns + blackBishop + blackRooks;
         final int whitePieces = whitePawns;
 
@@ -40,8 +51,21 @@ class SimpleHeuristicTest {
         System.out.println("whitePosition = " + whitePosition);
         System.out.println();
 
-        final int expected = blackPawns + blackBishop + blackRooks + blackPosition - whitePawns - whitePawnPosition;
+        final int expected = blackPieces - whitePieces + position;
 
         Assertions.assertEquals(expected, value);
     }
-}
\ No newline at end of file
+
+    @Test
+    void movesToMate() {
+        // white mates on black's board with fullmove clock 12, black mates on white's board with fullmove clock 12
+        final int whiteMates = SimpleHeuristic.WIN - 12;
+        final int blackMates = SimpleHeuristic.LOSS + 12;
+
+        Assertions.assertEquals(3, SimpleHeuristic.movesToMate(whiteMates, Color.WHITE, 10));
+        Assertions.assertEquals(-2, SimpleHeuristic.movesToMate(-whiteMates, Color.BLACK, 10));
+        Assertions.assertEquals(2, SimpleHeuristic.movesToMate(-blackMates, Color.BLACK, 10));
+        Assertions.assertEquals(-2, SimpleHeuristic.movesToMate(blackMates, Color.WHITE, 10));
+        Assertions.assertEquals(0, SimpleHeuristic.movesToMate(150, Color.WHITE, 10));
+    }
+}
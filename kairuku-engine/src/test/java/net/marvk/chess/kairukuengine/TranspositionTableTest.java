@@ -0,0 +1,94 @@
+package net.marvk.chess.kairukuengine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Random;
+
+class TranspositionTableTest {
+    @ParameterizedTest
+    @EnumSource(TranspositionTable.Storage.class)
+    void storeAndProbe(final TranspositionTable.Storage storage) {
+        final TranspositionTable table = TranspositionTable.create(storage, 1);
+
+        table.store(0x123456789abcdefL, 0x7fff, -1_000_000, 7, TranspositionTable.NodeType.UPPERBOUND);
+
+        final long entry = table.probe(0x123456789abcdefL);
+
+        Assertions.assertNotEquals(TranspositionTable.NO_ENTRY, entry);
+        Assertions.assertEquals(0x7fff, TranspositionTable.moveKey(entry));
+        Assertions.assertEquals(-1_000_000, TranspositionTable.value(entry));
+        Assertions.assertEquals(7, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.NodeType.UPPERBOUND, TranspositionTable.nodeType(entry));
+
+        Assertions.assertEquals(TranspositionTable.NO_ENTRY, table.probe(0x123456789abcdeeL));
+        Assertions.assertEquals(TranspositionTable.NO_ENTRY, table.probe(0L));
+    }
+
+    @ParameterizedTest
+    @EnumSource(TranspositionTable.Storage.class)
+    void storeReplacesSameKey(final TranspositionTable.Storage storage) {
+        final TranspositionTable table = TranspositionTable.create(storage, 1);
+
+        table.store(42L, 1, 10, 5, TranspositionTable.NodeType.LOWERBOUND);
+        table.store(42L, 2, 20, 3, TranspositionTable.NodeType.EXACT);
+
+        final long entry = table.probe(42L);
+
+        Assertions.assertEquals(2, TranspositionTable.moveKey(entry));
+        Assertions.assertEquals(20, TranspositionTable.value(entry));
+        Assertions.assertEquals(TranspositionTable.NodeType.EXACT, TranspositionTable.nodeType(entry));
+    }
+
+    @ParameterizedTest
+    @EnumSource(TranspositionTable.Storage.class)
+    void storeReplacesShallowestAndOldest(final TranspositionTable.Storage storage) {
+        final TranspositionTable table = TranspositionTable.create(storage, 1);
+        final long bucketStride = table.capacity() / TranspositionTable.BUCKET_SIZE;
+
+        // same bucket, different keys
+        for (int i = 0; i < TranspositionTable.BUCKET_SIZE; i++) {
+            table.store(i * bucketStride, 0, 0, 10 + i, TranspositionTable.NodeType.EXACT);
+        }
+
+        table.store(TranspositionTable.BUCKET_SIZE * bucketStride, 0, 0, 20, TranspositionTable.NodeType.EXACT);
+
+        Assertions.assertEquals(TranspositionTable.NO_ENTRY, table.probe(0L));
+
+        for (int i = 1; i <= TranspositionTable.BUCKET_SIZE; i++) {
+            Assertions.assertNotEquals(TranspositionTable.NO_ENTRY, table.probe(i * bucketStride));
+        }
+
+        table.newSearch();
+        table.store(0L, 0, 0, 2, TranspositionTable.NodeType.EXACT);
+
+        // the shallowest entry of the previous search, even though the new entry is shallower still
+        Assertions.assertEquals(TranspositionTable.NO_ENTRY, table.probe(bucketStride));
+        Assertions.assertNotEquals(TranspositionTable.NO_ENTRY, table.probe(0L));
+    }
+
+    @ParameterizedTest
+    @EnumSource(TranspositionTable.Storage.class)
+    void hashFull(final TranspositionTable.Storage storage) {
+        final TranspositionTable table = TranspositionTable.create(storage, 1);
+
+        Assertions.assertEquals(0, table.hashFull());
+
+        final Random random = new Random(0);
+
+        for (int i = 0; i < table.capacity() * 4; i++) {
+            table.store(random.nextLong(), 0, 0, 1, TranspositionTable.NodeType.EXACT);
+        }
+
+        Assertions.assertEquals(1000, table.hashFull());
+
+        table.newSearch();
+
+        Assertions.assertEquals(0, table.hashFull());
+
+        table.clear();
+
+        Assertions.assertEquals(TranspositionTable.NO_ENTRY, table.probe(random.nextLong()));
+    }
+}
@@ -1,11 +1,13 @@
 package net.marvk.chess.queensgambot;
 
 import lombok.extern.log4j.Log4j2;
+import net.marvk.chess.kairukuengine.ExperienceFile;
 import net.marvk.chess.kairukuengine.KairukuEngine;
 import net.marvk.chess.kairukuengine.Metrics;
 import net.marvk.chess.lichess4j.*;
 import net.marvk.chess.lichess4j.model.ChatLine;
 import net.marvk.chess.lichess4j.model.Perf;
+import net.marvk.chess.uci4j.EngineFactory;
 import org.apache.commons.cli.*;
 
 import java.io.IOException;
@@ -25,16 +27,41 @@ public final class QueensGamBotApp {
                                                          .argName("Lichess API Token")
                                                          .desc("The API token for lichess.org")
                                                          .build();
+    private static final Option EXPERIENCE_FILE_OPTION = Option.builder("e")
+                                                               .hasArg()
+                                                               .required(false)
+                                                               .longOpt("experienceFile")
+                                                               .argName("Experience File")
+                                                               .desc("The file that keeps deep search results across games and restarts")
+                                                               .build();
+    private static final int EXPERIENCE_MEGABYTES = 64;
+    /**
+     * Lichess starts the opponent's clock when it receives the move, so the round trip counts against the bot
+     */
+    private static final int MOVE_OVERHEAD_MILLIS = 300;
 
     private QueensGamBotApp() {
         throw new AssertionError("No instances of utility class " + QueensGamBotApp.class);
     }
 
     public static void main(final String[] args) throws IOException, ParseException {
-        final String lichessApiToken = getApiToken(args);
+        final CommandLine commandLine = getCommandLineArgs(args);
+        final String lichessApiToken = getApiToken(commandLine);
+
+        final ExperienceFile experience =
+                commandLine.hasOption(EXPERIENCE_FILE_OPTION.getOpt())
+                        ? ExperienceFile.open(Paths.get(commandLine.getOptionValue(EXPERIENCE_FILE_OPTION.getOpt())), EXPERIENCE_MEGABYTES)
+                        : null;
+
+        final EngineFactory engineFactory = uiChannel -> {
+            final KairukuEngine engine = experience == null ? new KairukuEngine(uiChannel) : new KairukuEngine(uiChannel, experience);
+            engine.setOption("Move Overhead", Integer.toString(MOVE_OVERHEAD_MILLIS));
+
+            return engine;
+        };
 
         try (final LichessClient client =
-                     LichessClientBuilder.create("queensgambot", KairukuEngine::new)
+                     LichessClientBuilder.create("queensgambot", engineFactory)
                                          .allowAllPerfs(Perf.BULLET, Perf.BLITZ)
                                          .allowAllPerfsOnCasual(true)
                                          .apiToken(lichessApiToken)
@@ -44,6 +71,10 @@ public final class QueensGamBotApp {
             client.start();
         } catch (final LichessClientInstantiationException | LichessClientOperationException e) {
             log.error("", e);
+        } finally {
+            if (experience != null) {
+                experience.close();
+            }
         }
     }
 
@@ -52,12 +83,12 @@ public final class QueensGamBotApp {
 
         final Options options = new Options();
         options.addOption(API_TOKEN_OPTION);
+        options.addOption(EXPERIENCE_FILE_OPTION);
 
         return defaultParser.parse(options, args);
     }
 
-    private static String getApiToken(final String[] args) throws IOException, ParseException {
-        final CommandLine commandLine = getCommandLineArgs(args);
+    private static String getApiToken(final CommandLine commandLine) throws IOException {
         if (commandLine.hasOption(API_TOKEN_OPTION.getOpt())) {
             return commandLine.getOptionValue(API_TOKEN_OPTION.getOpt());
         } else if (Files.exists(API_TOKEN_PATH)) {
@@ -62,6 +62,9 @@ public class ConsoleEngineChannel implements AutoCloseable {
                 case "quit":
                     engine.quit();
                     break;
+                case "bench":
+                    engine.bench(commandParser.getParameter("depth", Integer::parseInt));
+                    break;
             }
         }
     }
@@ -75,12 +78,14 @@ public class ConsoleEngineChannel implements AutoCloseable {
         final Integer blackIncrement = commandParser.getParameter("binc", Integer::parseInt);
         final Integer movesToGo = commandParser.getParameter("movestogo", Integer::parseInt);
         final Integer depth = commandParser.getParameter("depth", Integer::parseInt);
-        final Integer nodes = commandParser.getParameter("nodes", Integer::parseInt);
+        final Long nodes = commandParser.getParameter("nodes", Long::parseLong);
         final Integer mate = commandParser.getParameter("mate", Integer::parseInt);
         final Integer moveTime = commandParser.getParameter("movetime", Integer::parseInt);
         final boolean infinite = commandParser.containsParameter("infinite");
+        final Integer perft = commandParser.getParameter("perft", Integer::parseInt);
+        final boolean perftStatistics = commandParser.containsParameter("statistics");
 
-        final Go go = new Go(searchMoves, ponder, whiteTime, blackTime, whiteIncrement, blackIncrement, movesToGo, depth, nodes, mate, moveTime, infinite);
+        final Go go = new Go(searchMoves, ponder, whiteTime, blackTime, whiteIncrement, blackIncrement, movesToGo, depth, nodes, mate, moveTime, infinite, perft, perftStatistics);
 
         engine.go(go);
     }
@@ -134,8 +139,9 @@ public class ConsoleEngineChannel implements AutoCloseable {
     }
 
     private void setOption(final CommandParser commandParser) {
-        final String name = commandParser.getParameter("name");
-        final String value = commandParser.getParameter("value");
+        // option names and values may contain spaces
+        final String name = commandParser.getParameter("name", "value");
+        final String value = commandParser.getParameter("value", (String) null);
 
         if (name != null) {
             engine.setOption(name, value);
@@ -173,6 +179,9 @@ public class ConsoleEngineChannel implements AutoCloseable {
             return null;
         }
 
+        /**
+         * @param until the token that ends the parameter, {@code null} to take the rest of the line
+         */
         String getParameter(final String name, final String until) {
 
             for (int i = 1; i < split.length - 1; i++) {
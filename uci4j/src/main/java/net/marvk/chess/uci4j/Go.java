@@ -50,6 +50,12 @@ import net.marvk.chess.core.UciMove;
  *
  * infinite
  * search until the "stop" command. Do not exit the search without being told so in this mode!
+ *
+ * perft
+ * not part of the protocol, count the leaf nodes {@code } plies deep instead of searching
+ *
+ * perftStatistics
+ * not part of the protocol, additionally classify the leaf moves of a perft, which is considerably slower
  */
 @Data
 @Builder
@@ -64,8 +70,10 @@ public class Go {
     private final Integer blackIncrement;
     private final Integer movesToGo;
     private final Integer depth;
-    private final Integer nodes;
+    private final Long nodes;
     private final Integer mate;
     private final Integer moveTime;
     private final Boolean infinite;
+    private final Integer perft;
+    private final Boolean perftStatistics;
 }
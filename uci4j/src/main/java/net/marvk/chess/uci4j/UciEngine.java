@@ -143,4 +143,16 @@ public interface UciEngine {
      * <p>quit the program as soon as possible</p>
      */
     void quit();
+
+    /**
+     * <p>Not part of the protocol:</p>
+     * <p>search a fixed suite of positions to a fixed depth from a clean state and report the total node count, which
+     * identifies the searched tree, together with the elapsed time and the node rate. Blocks until the suite has been
+     * searched.</p>
+     *
+     * @param depth the search depth or {@code null} for the engine's default bench depth
+     */
+    default void bench(final Integer depth) {
+
+    }
 }